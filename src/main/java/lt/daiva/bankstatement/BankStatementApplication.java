@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @OpenAPIDefinition(
         info = @Info(
@@ -12,6 +13,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
                 description = "Service for importing/exporting bank statements and calculating balances"
         )
 )
+@EnableScheduling
 @SpringBootApplication
 public class BankStatementApplication {
 
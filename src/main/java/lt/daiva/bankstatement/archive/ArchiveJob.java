@@ -0,0 +1,120 @@
+package lt.daiva.bankstatement.archive;
+
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Moves whole months older than the archive horizon from bank_operation into
+ * archive segments, under the archive write lock. A month's segment is written
+ * inside the transaction deleting its rows and put back as it was if that
+ * transaction rolls back.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank-statement.archive", name = "enabled", havingValue = "true")
+public class ArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveJob.class);
+
+    private final ArchiveStore archiveStore;
+    private final BankOperationRepository bankOperationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Period horizon;
+
+    public ArchiveJob(ArchiveStore archiveStore,
+                      BankOperationRepository bankOperationRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${bank-statement.archive.horizon:P3M}") Period horizon) {
+        this.archiveStore = archiveStore;
+        this.bankOperationRepository = bankOperationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = horizon;
+    }
+
+    @Scheduled(cron = "${bank-statement.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        archiveBefore(YearMonth.from(LocalDate.now().minus(horizon)));
+    }
+
+    /**
+     * Archives all operations dated before the first day of the given month.
+     *
+     * @return number of archived operations
+     */
+    public int archiveBefore(YearMonth firstLiveMonth) {
+        LocalDateTime cutoff = firstLiveMonth.atDay(1).atStartOfDay();
+        int archived = 0;
+
+        for (String accountNumber : bankOperationRepository.findAccountsWithOperationsBefore(cutoff)) {
+            // one month at a time, so only a single month of an account is held in memory
+            LocalDateTime next = bankOperationRepository.findFirstOperationTime(accountNumber, null, cutoff);
+            while (next != null) {
+                YearMonth month = YearMonth.from(next);
+                LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+                List<BankOperation> operations = bankOperationRepository
+                        .findByAccountNumberAndOperationTimeGreaterThanEqualAndOperationTimeLessThanOrderByOperationTime(
+                                accountNumber, month.atDay(1).atStartOfDay(), monthEnd);
+
+                archiveStore.exclusively(() -> transactionTemplate.executeWithoutResult(status -> {
+                    List<BankOperation> previous = archiveStore.read(
+                            accountNumber, month.atDay(1).atStartOfDay(), monthEnd.minusNanos(1));
+                    archiveStore.write(accountNumber, month, operations);
+                    TransactionSynchronizationManager.registerSynchronization(
+                            new SegmentRestore(accountNumber, month, previous));
+                    bankOperationRepository.deleteAllByIdInBatch(
+                            operations.stream().map(BankOperation::getId).toList());
+                }));
+                archived += operations.size();
+                next = bankOperationRepository.findFirstOperationTime(accountNumber, monthEnd, cutoff);
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} operations dated before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    /**
+     * Puts the rows archived before this run back into the month's segment once the
+     * transaction has rolled back. If the outcome is unknown the new segment is kept:
+     * its rows may then also be live, but none are lost.
+     */
+    private final class SegmentRestore implements TransactionSynchronization {
+
+        private final String accountNumber;
+        private final YearMonth month;
+        private final List<BankOperation> previous;
+
+        SegmentRestore(String accountNumber, YearMonth month, List<BankOperation> previous) {
+            this.accountNumber = accountNumber;
+            this.month = month;
+            this.previous = previous;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+                archiveStore.restore(accountNumber, month, previous);
+            } else if (status == STATUS_UNKNOWN) {
+                log.warn("Archival of account {} month {} ended with an unknown outcome; keeping its segment",
+                        accountNumber, month);
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package lt.daiva.bankstatement.archive;
+
+import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.model.BankOperation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable, memory-mapped file holding all archived operations of one account and month.
+ * <p>
+ * Layout: magic, version, row count, per-currency summary (currency, sum of amounts in
+ * minor units), then a deflate-compressed column block: string dictionary, operation
+ * times as epoch-second deltas and nanos, amounts in minor units, and dictionary indexes
+ * for currency, beneficiary and comment. Rows are sorted by operation time.
+ * The summary can be read without inflating the columns.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x42534131; // "BSA1"
+    private static final int VERSION = 1;
+    private static final int AMOUNT_SCALE = 2;
+
+    private final String accountNumber;
+    private final int rowCount;
+    private final Map<String, BigDecimal> summary;
+    private final ByteBuffer columns;
+    private final int rawColumnsLength;
+
+    private ArchiveSegment(String accountNumber, int rowCount, Map<String, BigDecimal> summary,
+                           ByteBuffer columns, int rawColumnsLength) {
+        this.accountNumber = accountNumber;
+        this.rowCount = rowCount;
+        this.summary = summary;
+        this.columns = columns;
+        this.rawColumnsLength = rawColumnsLength;
+    }
+
+    static ArchiveSegment map(Path file, String accountNumber) throws IOException {
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not an archive segment: " + file);
+        }
+        int rowCount = buffer.getInt();
+        int currencies = buffer.getInt();
+        Map<String, BigDecimal> summary = new LinkedHashMap<>();
+        for (int i = 0; i < currencies; i++) {
+            byte[] currency = new byte[buffer.getShort()];
+            buffer.get(currency);
+            summary.put(new String(currency, StandardCharsets.UTF_8), BigDecimal.valueOf(buffer.getLong(), AMOUNT_SCALE));
+        }
+        int rawLength = buffer.getInt();
+        int compressedLength = buffer.getInt();
+        ByteBuffer columns = buffer.slice(buffer.position(), compressedLength);
+        return new ArchiveSegment(accountNumber, rowCount, Map.copyOf(summary), columns, rawLength);
+    }
+
+    /**
+     * Encodes operations of a single account and month; they must be sorted by operation time.
+     */
+    static byte[] encode(List<BankOperation> operations) {
+        var dictionary = new LinkedHashMap<String, Integer>();
+        var summary = new LinkedHashMap<String, Long>();
+        int count = operations.size();
+        long[] amounts = new long[count];
+        int[] currencies = new int[count];
+        int[] beneficiaries = new int[count];
+        int[] comments = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            BankOperation operation = operations.get(i);
+            amounts[i] = toMinorUnits(operation.getAmount());
+            currencies[i] = dictionary.computeIfAbsent(operation.getCurrency(), key -> dictionary.size());
+            beneficiaries[i] = dictionary.computeIfAbsent(operation.getBeneficiary(), key -> dictionary.size());
+            comments[i] = dictionary.computeIfAbsent(
+                    operation.getOperationComment() == null ? "" : operation.getOperationComment(),
+                    key -> dictionary.size());
+            summary.merge(operation.getCurrency(), amounts[i], Math::addExact);
+        }
+
+        try {
+            var raw = new ByteArrayOutputStream(count * 24);
+            var out = new DataOutputStream(raw);
+            out.writeInt(dictionary.size());
+            for (String value : dictionary.keySet()) {
+                out.writeUTF(value);
+            }
+            long previous = 0;
+            for (BankOperation operation : operations) {
+                long epochSecond = operation.getOperationTime().toEpochSecond(ZoneOffset.UTC);
+                out.writeLong(epochSecond - previous);
+                out.writeInt(operation.getOperationTime().getNano());
+                previous = epochSecond;
+            }
+            for (long amount : amounts) {
+                out.writeLong(amount);
+            }
+            writeInts(out, currencies);
+            writeInts(out, beneficiaries);
+            writeInts(out, comments);
+            out.flush();
+
+            byte[] rawBytes = raw.toByteArray();
+            byte[] compressed = deflate(rawBytes);
+
+            var file = new ByteArrayOutputStream(compressed.length + 64);
+            var header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(count);
+            header.writeInt(summary.size());
+            for (Map.Entry<String, Long> entry : summary.entrySet()) {
+                byte[] currency = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                header.writeShort(currency.length);
+                header.write(currency);
+                header.writeLong(entry.getValue());
+            }
+            header.writeInt(rawBytes.length);
+            header.writeInt(compressed.length);
+            header.write(compressed);
+            header.flush();
+            return file.toByteArray();
+
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to encode archive segment: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return sum of amounts per currency over the whole segment
+     */
+    Map<String, BigDecimal> summary() {
+        return summary;
+    }
+
+    /**
+     * Inflates the column block and materialises all rows, sorted by operation time.
+     */
+    List<BankOperation> rows() {
+        return rows(null, null);
+    }
+
+    /**
+     * Inflates the column block and materialises the rows within the inclusive range,
+     * sorted by operation time; a null bound is open. Rows outside the range are skipped
+     * without being decoded.
+     */
+    List<BankOperation> rows(LocalDateTime from, LocalDateTime to) {
+        byte[] raw = inflate();
+        try (var in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.readUTF();
+            }
+            long[] epochSeconds = new long[rowCount];
+            int[] nanos = new int[rowCount];
+            long epochSecond = 0;
+            for (int i = 0; i < rowCount; i++) {
+                epochSecond += in.readLong();
+                epochSeconds[i] = epochSecond;
+                nanos[i] = in.readInt();
+            }
+            int start = 0;
+            while (from != null && start < rowCount && compare(epochSeconds[start], nanos[start], from) < 0) {
+                start++;
+            }
+            int end = start;
+            while (end < rowCount && (to == null || compare(epochSeconds[end], nanos[end], to) <= 0)) {
+                end++;
+            }
+
+            // fixed-width columns follow the times: amounts, then currency, beneficiary and comment indexes
+            ByteBuffer columns = ByteBuffer.wrap(raw);
+            int amounts = raw.length - in.available();
+            int currencies = amounts + rowCount * Long.BYTES;
+            int beneficiaries = currencies + rowCount * Integer.BYTES;
+            int comments = beneficiaries + rowCount * Integer.BYTES;
+
+            List<BankOperation> rows = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                rows.add(new BankOperation(
+                        accountNumber,
+                        LocalDateTime.ofEpochSecond(epochSeconds[i], nanos[i], ZoneOffset.UTC),
+                        dictionary[columns.getInt(beneficiaries + i * Integer.BYTES)],
+                        dictionary[columns.getInt(comments + i * Integer.BYTES)],
+                        BigDecimal.valueOf(columns.getLong(amounts + i * Long.BYTES), AMOUNT_SCALE),
+                        dictionary[columns.getInt(currencies + i * Integer.BYTES)]
+                ));
+            }
+            return rows;
+
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new BankStatementException("Corrupt archive segment for account " + accountNumber, e);
+        }
+    }
+
+    private byte[] inflate() {
+        byte[] raw = new byte[rawColumnsLength];
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(columns.duplicate());
+            int read = 0;
+            while (read < raw.length) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated column block");
+                }
+                read += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new BankStatementException("Corrupt archive segment for account " + accountNumber, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int compare(long epochSecond, int nano, LocalDateTime time) {
+        int bySecond = Long.compare(epochSecond, time.toEpochSecond(ZoneOffset.UTC));
+        return bySecond != 0 ? bySecond : Integer.compare(nano, time.getNano());
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            var out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package lt.daiva.bankstatement.archive;
+
+import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.model.BankOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Archived operations, one immutable segment file per account and month:
+ * {@code <directory>/<url-encoded account>/<yyyy-MM>.seg}, with {@code .} encoded as well
+ * so that no account number resolves outside the directory.
+ * <p>
+ * Archived rows are no longer guarded by uq_bank_operation_unique; imports check
+ * {@link #contains(BankOperation)} under a snapshot before inserting.
+ * <p>
+ * Readers run inside {@link #withSnapshot(Supplier)} and the archival job moves rows
+ * inside {@link #exclusively(Runnable)}, so a reader never sees a month both in
+ * the archive and in the live table, or in neither. Segment files are replaced, never
+ * changed in place, so segments chosen inside a snapshot stay readable after it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank-statement.archive", name = "enabled", havingValue = "true")
+public class ArchiveStore {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final Map<Path, ArchiveSegment> mapped = new ConcurrentHashMap<>();
+    /** unique keys of the most recently checked segments, least recently used dropped first */
+    private final Map<Path, Set<List<Object>>> keys;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ArchiveStore(@Value("${bank-statement.archive.directory}") Path directory,
+                        @Value("${bank-statement.archive.key-cache-segments:64}") int keyCacheSegments) {
+        this.directory = directory;
+        this.keys = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Set<List<Object>>> eldest) {
+                return size() > keyCacheSegments;
+            }
+        });
+    }
+
+    public <T> T withSnapshot(Supplier<T> read) {
+        lock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void exclusively(Runnable write) {
+        lock.writeLock().lock();
+        try {
+            write.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores operations of one account and month. Rows already archived for that month
+     * are merged in and exact duplicates dropped, so a repeated archival run is harmless.
+     */
+    public void write(String accountNumber, YearMonth month, List<BankOperation> operations) {
+        Path file = segmentPath(accountNumber, month);
+        Map<List<Object>, BankOperation> rows = new LinkedHashMap<>();
+        try {
+            if (Files.exists(file)) {
+                segment(file, accountNumber).rows().forEach(row -> rows.putIfAbsent(uniqueKey(row), row));
+            }
+            operations.forEach(row -> rows.putIfAbsent(uniqueKey(row), row));
+
+            replace(file, new ArrayList<>(rows.values()));
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to write archive segment: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Undoes a {@link #write} whose rows stayed live: the month's segment again holds
+     * exactly {@code previous}, or is removed if that is empty.
+     */
+    public void restore(String accountNumber, YearMonth month, List<BankOperation> previous) {
+        Path file = segmentPath(accountNumber, month);
+        try {
+            if (previous.isEmpty()) {
+                Files.deleteIfExists(file);
+                mapped.remove(file);
+                keys.remove(file);
+            } else {
+                replace(file, new ArrayList<>(previous));
+            }
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to restore archive segment: " + e.getMessage(), e);
+        }
+    }
+
+    private void replace(Path file, List<BankOperation> rows) throws IOException {
+        rows.sort(Comparator.comparing(BankOperation::getOperationTime));
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, ArchiveSegment.encode(rows),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        mapped.remove(file);
+        keys.remove(file);
+    }
+
+    /**
+     * Must be called inside {@link #withSnapshot(Supplier)}, together with the insert it guards.
+     *
+     * @return true if an operation with the same unique key is archived
+     */
+    public boolean contains(BankOperation operation) {
+        Path file = segmentPath(operation.getAccountNumber(), YearMonth.from(operation.getOperationTime()));
+        Set<List<Object>> archived = keys.get(file);
+        if (archived == null) {
+            if (!Files.exists(file)) {
+                return false;
+            }
+            // built outside the map's lock; concurrent checks of one segment may both build it
+            archived = segment(file, operation.getAccountNumber()).rows().stream()
+                    .map(ArchiveStore::uniqueKey)
+                    .collect(Collectors.toUnmodifiableSet());
+            keys.put(file, archived);
+        }
+        return archived.contains(uniqueKey(operation));
+    }
+
+    /**
+     * @return archived operations of the account within the inclusive range, sorted by time
+     */
+    public List<BankOperation> read(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        List<BankOperation> result = new ArrayList<>();
+        iterator(accountNumber, from, to).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Same operations as {@link #read}, inflated one month at a time. The months are
+     * chosen when this is called, inside the snapshot; the iterator may be consumed
+     * after the snapshot is released.
+     */
+    public Iterator<BankOperation> iterator(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        Iterator<ArchiveSegment> months = segments(accountNumber, from, to).values().iterator();
+        return new Iterator<>() {
+            private Iterator<BankOperation> rows = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!rows.hasNext() && months.hasNext()) {
+                    rows = months.next().rows(from, to).iterator();
+                }
+                return rows.hasNext();
+            }
+
+            @Override
+            public BankOperation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return rows.next();
+            }
+        };
+    }
+
+    /**
+     * Sums archived amounts per currency. Months fully inside the range are answered
+     * from the segment summary without inflating any rows.
+     */
+    public Map<String, BigDecimal> balances(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        Map<String, BigDecimal> balances = new LinkedHashMap<>();
+        segments(accountNumber, from, to).forEach((month, segment) -> {
+            boolean fullyCovered = within(month.atDay(1).atStartOfDay(), from, to)
+                    && within(month.atEndOfMonth().atTime(23, 59, 59, 999_999_999), from, to);
+            if (fullyCovered) {
+                segment.summary().forEach((currency, amount) -> balances.merge(currency, amount, BigDecimal::add));
+                return;
+            }
+            for (BankOperation row : segment.rows(from, to)) {
+                balances.merge(row.getCurrency(), row.getAmount(), BigDecimal::add);
+            }
+        });
+        return balances;
+    }
+
+    /**
+     * @return accounts having at least one archived month
+     */
+    public List<String> accounts() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files.filter(Files::isDirectory)
+                    .map(path -> URLDecoder.decode(path.getFileName().toString(), StandardCharsets.UTF_8))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to read archive: " + e.getMessage(), e);
+        }
+    }
+
+    private TreeMap<YearMonth, ArchiveSegment> segments(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        TreeMap<YearMonth, ArchiveSegment> result = new TreeMap<>();
+        Path accountDirectory = directory.resolve(encode(accountNumber));
+        if (!Files.isDirectory(accountDirectory)) {
+            return result;
+        }
+        YearMonth first = from == null ? null : YearMonth.from(from);
+        YearMonth last = to == null ? null : YearMonth.from(to);
+
+        try (var files = Files.list(accountDirectory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                YearMonth month = YearMonth.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                if ((first == null || !month.isBefore(first)) && (last == null || !month.isAfter(last))) {
+                    result.put(month, segment(file, accountNumber));
+                }
+            }
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to read archive: " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    private ArchiveSegment segment(Path file, String accountNumber) {
+        return mapped.computeIfAbsent(file, path -> {
+            try {
+                return ArchiveSegment.map(path, accountNumber);
+            } catch (IOException e) {
+                throw new BankStatementException("Failed to map archive segment: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private Path segmentPath(String accountNumber, YearMonth month) {
+        return directory.resolve(encode(accountNumber)).resolve(month + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * URL encoding leaves {@code .} alone, so {@code ..} would name the parent directory.
+     * {@code %2E} is still decoded by {@link URLDecoder}.
+     */
+    private static String encode(String accountNumber) {
+        return URLEncoder.encode(accountNumber, StandardCharsets.UTF_8).replace(".", "%2E");
+    }
+
+    private static boolean within(LocalDateTime time, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !time.isBefore(from)) && (to == null || !time.isAfter(to));
+    }
+
+    /**
+     * Same columns as the uq_bank_operation_unique constraint.
+     */
+    private static List<Object> uniqueKey(BankOperation operation) {
+        return List.of(
+                operation.getAccountNumber(),
+                operation.getOperationTime(),
+                operation.getBeneficiary(),
+                operation.getAmount().stripTrailingZeros(),
+                operation.getCurrency(),
+                Objects.toString(operation.getOperationComment(), "")
+        );
+    }
+}
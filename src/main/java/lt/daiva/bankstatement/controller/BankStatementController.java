@@ -4,27 +4,48 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
+import lt.daiva.bankstatement.dto.AccountSummaryResponse;
 import lt.daiva.bankstatement.dto.BalanceResponse;
+import lt.daiva.bankstatement.dto.ExportQuery;
 import lt.daiva.bankstatement.dto.ExportResult;
 import lt.daiva.bankstatement.dto.ImportResult;
+import lt.daiva.bankstatement.dto.JournalStatus;
+import lt.daiva.bankstatement.dto.TolerantImportResult;
+import lt.daiva.bankstatement.dto.ZipImportResult;
 import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.exception.ExportAbortedException;
+import lt.daiva.bankstatement.export.BinaryOperationWriter;
+import lt.daiva.bankstatement.export.NdjsonOperationWriter;
+import lt.daiva.bankstatement.export.OperationWriter;
+import lt.daiva.bankstatement.service.AccountSummaryService;
 import lt.daiva.bankstatement.service.BankStatementService;
+import lt.daiva.bankstatement.service.StatementReconciler;
+import lt.daiva.bankstatement.service.ZipImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -32,21 +53,39 @@ import java.util.Objects;
 @RequestMapping("/api/v1/statements")
 public class BankStatementController {
 
+    private static final Logger log = LoggerFactory.getLogger(BankStatementController.class);
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType(NdjsonOperationWriter.MEDIA_TYPE);
+    private static final MediaType BINARY = MediaType.parseMediaType(BinaryOperationWriter.MEDIA_TYPE);
+
     private final BankStatementService bankStatementService;
+    private final ZipImportService zipImportService;
+    private final StatementReconciler statementReconciler;
+    private final AccountSummaryService accountSummaryService;
 
-    public BankStatementController(BankStatementService bankStatementService) {
+    public BankStatementController(BankStatementService bankStatementService,
+                                   ZipImportService zipImportService,
+                                   StatementReconciler statementReconciler,
+                                   AccountSummaryService accountSummaryService) {
         this.bankStatementService = bankStatementService;
+        this.zipImportService = zipImportService;
+        this.statementReconciler = statementReconciler;
+        this.accountSummaryService = accountSummaryService;
     }
 
     /**
-     * Imports bank operations from a CSV file.
+     * Imports bank operations from a CSV file or a ZIP archive of CSV files.
      * Expected CSV header:
      * accountNumber,operationDateTime,beneficiary,comment,amount,currency
-     * Returns the number of imported records and skipped duplicates.
+     * Returns the number of imported records and skipped duplicates,
+     * for a ZIP archive per file and in total.
+     * With the ingest journal enabled, responds with 202, the number of accepted records
+     * and the journal sequence once the records are durable, before they are stored;
+     * duplicates are then skipped when the journal is applied and not counted.
      */
     @PostMapping(value = "/import", consumes = "multipart/form-data")
     @Operation(
-            summary = "Import bank statement from CSV",
+            summary = "Import bank statement from CSV or ZIP",
             description = """
                     Expected CSV format:
 
@@ -54,17 +93,109 @@ public class BankStatementController {
 
                     Example:
                     LT100001,2025-01-05T12:10:00,Upwork	Freelance payment,200.00,EUR
+
+                    A ZIP archive of such CSV files is imported file by file
+                    and answered with a per-file breakdown and a total.
                     """
     )
-    public ResponseEntity<ImportResult> importCsv(@RequestPart("file") MultipartFile file) {
+    public ResponseEntity<?> importCsv(@RequestPart("file") MultipartFile file) {
+        if (isZip(file)) {
+            ZipImportResult result = zipImportService.importFromZip(file);
+            if (result.total().journalSequence() != null) {
+                return ResponseEntity.accepted().body(result);
+            }
+            return ResponseEntity.ok(result);
+        }
         if (!isCsv(file)) {
-            throw new BankStatementException("Only CSV files are supported");
+            throw new BankStatementException("Only CSV or ZIP files are supported");
         }
 
         ImportResult result = bankStatementService.importFromCsv(file);
+        if (result.journalSequence() != null) {
+            return ResponseEntity.accepted().body(result);
+        }
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Tolerant CSV import: valid records are imported, invalid ones are streamed back
+     * as a CSV reject file with their line number and error, ready to be corrected and
+     * uploaded again. Counts are returned in X-Imported, X-Skipped-Duplicates and X-Rejected,
+     * or X-Accepted instead of the first two when the import was journaled.
+     * More than {@code maxErrors} invalid records stop the import: rows stored up to then
+     * are kept and reported, X-Error-Budget-Exceeded is true and the last rejected record
+     * is the line the import stopped at.
+     */
+    @PostMapping(value = "/import", consumes = "multipart/form-data", params = "tolerant=true")
+    @Operation(
+            summary = "Import bank statement from CSV, returning rejected records",
+            description = "Imports valid records and responds with a CSV of rejected ones (lineNumber and error appended)."
+    )
+    public ResponseEntity<StreamingResponseBody> importCsvTolerant(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(defaultValue = "${bank-statement.import.error-budget:1000}")
+            @Parameter(description = "Maximum number of rejected records before the import is stopped", example = "100")
+            int maxErrors) {
+        if (!isCsv(file)) {
+            throw new BankStatementException("Only CSV files are supported in tolerant mode");
+        }
+
+        TolerantImportResult tolerant = bankStatementService.importFromCsvTolerant(file, maxErrors);
+        ImportResult result = tolerant.result();
+        String filename = "rejected-" + Objects.toString(file.getOriginalFilename(), "import.csv");
+
+        var response = result.journalSequence() != null ? ResponseEntity.accepted() : ResponseEntity.ok();
+        if (result.journalSequence() != null) {
+            response.header("X-Journal-Sequence", String.valueOf(result.journalSequence()))
+                    .header("X-Accepted", String.valueOf(result.accepted()));
+        } else {
+            response.header("X-Imported", String.valueOf(result.imported()))
+                    .header("X-Skipped-Duplicates", String.valueOf(result.skippedDuplicates()));
+        }
+        return response
+                .header("X-Rejected", String.valueOf(tolerant.rejects().size()))
+                .header("X-Error-Budget-Exceeded", String.valueOf(tolerant.budgetExceeded()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(out -> bankStatementService.writeRejectCsv(tolerant.rejects(), out));
+    }
+
+    /**
+     * Compares a CSV file with the stored operations of its accounts within the time
+     * span the file covers, without importing it. Streams a JSON document with the rows
+     * that are new, missing from the file or repeated in it, followed by a summary.
+     */
+    @PostMapping(value = "/reconcile", consumes = "multipart/form-data")
+    @Operation(
+            summary = "Reconcile a CSV statement with stored operations",
+            description = """
+                    Same CSV format as the import. Nothing is written.
+
+                    Response: accounts with the compared time span, diff rows with status
+                    NEW, MISSING or DUPLICATE, and a summary with matched, newInFile,
+                    missingFromFile and duplicatesInFile counts.
+                    """
+    )
+    public ResponseEntity<StreamingResponseBody> reconcile(@RequestPart("file") MultipartFile file) {
+        if (!isCsv(file)) {
+            throw new BankStatementException("Only CSV files are supported");
+        }
+
+        StatementReconciler.Scope scope = statementReconciler.scan(file);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> statementReconciler.reconcile(file, scope, out));
+    }
+
+    @GetMapping("/journal")
+    @Operation(
+            summary = "Ingest journal watermarks",
+            description = "Last appended and last applied journal sequence and the number of pending operations."
+    )
+    public JournalStatus getJournalStatus() {
+        return bankStatementService.journalStatus();
+    }
+
     @GetMapping("/accounts/{accountNumber}/balance")
     public BalanceResponse getBalance(
             @PathVariable
@@ -77,17 +208,49 @@ public class BankStatementController {
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @Parameter(description = "End date", example = "2025-01-10")
-            LocalDate to) {
+            LocalDate to,
+            @RequestParam(required = false)
+            @Parameter(description = "Wait until this journal sequence is applied (read-after-write)", example = "42")
+            Long awaitJournal) {
 
+        bankStatementService.awaitJournal(awaitJournal);
         return bankStatementService.calculateBalance(accountNumber, from, to);
     }
 
+    @GetMapping("/accounts/{accountNumber}/summary")
+    @Operation(
+            summary = "Account summary",
+            description = """
+                    Operation count, first and last operation time and, per currency,
+                    lifetime credit and debit totals. Answers 404 for an account without operations.
+                    """
+    )
+    public AccountSummaryResponse getSummary(
+            @PathVariable
+            @Parameter(description = "Account number", example = "LT100001")
+            String accountNumber) {
+        return accountSummaryService.summary(accountNumber);
+    }
+
+    /**
+     * Exports operations of one or several accounts. The Accept header selects NDJSON or
+     * the binary format, both streamed row by row; anything else gets CSV.
+     */
     @GetMapping(value = "/export")
     @Operation(
-            summary = "Export bank statement to CSV",
-            description = "Exports operations for one or several accounts. Optional date range filters."
+            summary = "Export bank statement",
+            description = """
+                    Exports operations for one or several accounts. Optional date range filters.
+
+                    The Accept header selects the format:
+                    text/csv (default), with the record count in X-Total-Records;
+                    application/x-ndjson, one JSON object per line, streamed row by row;
+                    application/vnd.bank-statement.operations, length-prefixed frames with a
+                    per-response string dictionary, delta-encoded timestamps and amounts as
+                    scaled longs, streamed row by row. See BinaryOperationWriter for the layout.
+                    """
     )
-    public ResponseEntity<byte[]> exportCsv(
+    public ResponseEntity<StreamingResponseBody> export(
             @RequestParam
             @Parameter(description = "One or more account numbers", example = "LT100001")
             List<String> accounts,
@@ -100,21 +263,100 @@ public class BankStatementController {
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
             @Parameter(description = "End date", example = "2025-01-10")
-            LocalDate to
+            LocalDate to,
+
+            @RequestParam(required = false)
+            @Parameter(description = "Wait until this journal sequence is applied (read-after-write)", example = "42")
+            Long awaitJournal,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+            @Parameter(hidden = true)
+            String accept
     ) {
-        ExportResult result = bankStatementService.exportToCsv(accounts, from, to);
+        bankStatementService.awaitJournal(awaitJournal);
+        MediaType mediaType = exportMediaType(accept);
+        if (NDJSON.equals(mediaType)) {
+            return streamExport(accounts, from, to, mediaType, "ndjson", NdjsonOperationWriter::new);
+        }
+        if (BINARY.equals(mediaType)) {
+            return streamExport(accounts, from, to, mediaType, "bin", BinaryOperationWriter::new);
+        }
 
-        String filename = "bank-statement-"
-                + LocalDateTime.now()
-                .format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
-                + ".csv";
+        ExportResult result = bankStatementService.exportToCsv(accounts, from, to);
 
         return ResponseEntity.ok()
                 .header("X-Total-Records", String.valueOf(result.totalRecords()))
                 .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=filename=\"" + filename + "\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(result.csv());
+                        "attachment; filename=filename=\"" + exportFilename("csv") + "\"")
+                .contentType(CSV)
+                .body(out -> out.write(result.csv()));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamExport(List<String> accounts, LocalDate from, LocalDate to,
+                                                               MediaType mediaType, String extension,
+                                                               WriterFactory writerFactory) {
+        ExportQuery query = bankStatementService.exportQuery(accounts, from, to);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFilename(extension) + "\"")
+                .contentType(mediaType)
+                .body(out -> {
+                    try {
+                        bankStatementService.streamExport(query, writerFactory.create(out));
+                    } catch (RuntimeException e) {
+                        log.error("Export of accounts {} failed while streaming, aborting the response", accounts, e);
+                        throw new ExportAbortedException("Export of accounts " + accounts + " aborted: " + e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * @return the streamed format the client prefers if it names one, otherwise CSV
+     */
+    private static MediaType exportMediaType(String accept) {
+        if (accept == null) {
+            return CSV;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            throw new BankStatementException("Invalid Accept header: " + accept);
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType type : acceptable) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (NDJSON.equalsTypeAndSubtype(type)) {
+                return NDJSON;
+            }
+            if (BINARY.equalsTypeAndSubtype(type)) {
+                return BINARY;
+            }
+        }
+        return CSV;
+    }
+
+    private static String exportFilename(String extension) {
+        return "bank-statement-"
+                + LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + "." + extension;
+    }
+
+    @FunctionalInterface
+    private interface WriterFactory {
+        OperationWriter create(OutputStream out) throws IOException;
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String name = Objects.toString(file.getOriginalFilename(), "");
+        String contentType = Objects.toString(file.getContentType(), "");
+
+        return name.toLowerCase().endsWith(".zip") ||
+                contentType.equals("application/zip") ||
+                contentType.equals("application/x-zip-compressed");
     }
 
     private static boolean isCsv(MultipartFile file) {
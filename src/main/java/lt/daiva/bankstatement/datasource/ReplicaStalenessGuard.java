@@ -0,0 +1,55 @@
+package lt.daiva.bankstatement.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each account was last written to, so reads issued shortly after
+ * an import can be sent to the primary instead of a possibly lagging replica.
+ */
+@Component
+public class ReplicaStalenessGuard {
+
+    private final Duration stalenessWindow;
+    private final Map<String, Instant> lastWrites = new ConcurrentHashMap<>();
+
+    public ReplicaStalenessGuard(@Value("${bank-statement.replica.staleness-window:5s}") Duration stalenessWindow) {
+        this.stalenessWindow = stalenessWindow;
+    }
+
+    public void recordWrite(String accountNumber) {
+        if (!stalenessWindow.isZero()) {
+            lastWrites.put(accountNumber, Instant.now());
+        }
+    }
+
+    /**
+     * @return true if the account was written to within the staleness window
+     */
+    public boolean requiresPrimary(String accountNumber) {
+        Instant lastWrite = lastWrites.get(accountNumber);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (lastWrite.plus(stalenessWindow).isAfter(Instant.now())) {
+            return true;
+        }
+        lastWrites.remove(accountNumber, lastWrite);
+        return false;
+    }
+
+    public boolean requiresPrimary(Collection<String> accountNumbers) {
+        for (String accountNumber : accountNumbers) {
+            if (requiresPrimary(accountNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
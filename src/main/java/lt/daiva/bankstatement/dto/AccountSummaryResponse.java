@@ -0,0 +1,11 @@
+package lt.daiva.bankstatement.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record AccountSummaryResponse(String accountNumber,
+                                     long operationCount,
+                                     LocalDateTime firstOperationTime,
+                                     LocalDateTime lastOperationTime,
+                                     List<CurrencySummary> currencies) {
+}
@@ -0,0 +1,9 @@
+package lt.daiva.bankstatement.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * @param creditTotal sum of incoming amounts
+ * @param debitTotal  sum of outgoing amounts, as a positive number
+ */
+public record CurrencySummary(String currency, long operationCount, BigDecimal creditTotal, BigDecimal debitTotal) {}
@@ -0,0 +1,9 @@
+package lt.daiva.bankstatement.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Validated export request with the date filters converted to day boundaries.
+ */
+public record ExportQuery(List<String> accounts, LocalDateTime from, LocalDateTime to) {}
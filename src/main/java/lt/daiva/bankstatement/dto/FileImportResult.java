@@ -0,0 +1,18 @@
+package lt.daiva.bankstatement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of importing one entry of a ZIP archive; either result or error is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FileImportResult(String fileName, ImportResult result, String error) {
+
+    public static FileImportResult imported(String fileName, ImportResult result) {
+        return new FileImportResult(fileName, result, null);
+    }
+
+    public static FileImportResult failed(String fileName, String error) {
+        return new FileImportResult(fileName, null, error);
+    }
+}
@@ -1,3 +1,42 @@
 package lt.daiva.bankstatement.dto;
 
-public record ImportResult(int imported, int skippedDuplicates) {}
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * @param imported          operations stored; null when the import was journaled, as
+ *                          duplicates are only recognized once the journal is applied
+ * @param skippedDuplicates operations already stored; null when the import was journaled
+ * @param accepted          operations appended to the ingest journal, duplicates included;
+ *                          null unless the import was journaled
+ * @param journalSequence   set when the import was acknowledged from the ingest journal;
+ *                          operations are visible to balance and export once it is applied
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportResult(Integer imported, Integer skippedDuplicates, Integer accepted, Long journalSequence) {
+
+    public ImportResult(int imported, int skippedDuplicates) {
+        this(imported, skippedDuplicates, null, null);
+    }
+
+    public static ImportResult journaled(int accepted, long journalSequence) {
+        return new ImportResult(null, null, accepted, journalSequence);
+    }
+
+    /**
+     * Adds up the counts of two results, e.g. of the files of a ZIP archive;
+     * a count stays null only if it is null in both.
+     */
+    public ImportResult plus(ImportResult other) {
+        return new ImportResult(
+                sum(imported, other.imported),
+                sum(skippedDuplicates, other.skippedDuplicates),
+                sum(accepted, other.accepted),
+                journalSequence == null || other.journalSequence == null
+                        ? (journalSequence == null ? other.journalSequence : journalSequence)
+                        : Long.valueOf(Math.max(journalSequence, other.journalSequence)));
+    }
+
+    private static Integer sum(Integer a, Integer b) {
+        return a == null ? b : b == null ? a : Integer.valueOf(a + b);
+    }
+}
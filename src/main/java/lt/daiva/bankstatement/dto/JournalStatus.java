@@ -0,0 +1,3 @@
+package lt.daiva.bankstatement.dto;
+
+public record JournalStatus(long appendedSequence, long appliedSequence, long pendingOperations) {}
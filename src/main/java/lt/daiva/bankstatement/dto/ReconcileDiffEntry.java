@@ -0,0 +1,24 @@
+package lt.daiva.bankstatement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row that differs between the uploaded file and the stored operations.
+ *
+ * @param lineNumber line of the uploaded file, absent for stored rows missing from the file
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReconcileDiffEntry(Status status,
+                                 Long lineNumber,
+                                 String accountNumber,
+                                 LocalDateTime operationDateTime,
+                                 String beneficiary,
+                                 String comment,
+                                 BigDecimal amount,
+                                 String currency) {
+
+    public enum Status {NEW, MISSING, DUPLICATE}
+}
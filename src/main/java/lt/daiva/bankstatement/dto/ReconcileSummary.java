@@ -0,0 +1,9 @@
+package lt.daiva.bankstatement.dto;
+
+/**
+ * @param matched          file rows already stored
+ * @param newInFile        file rows not stored yet
+ * @param missingFromFile  stored rows of the file's accounts and range that the file lacks
+ * @param duplicatesInFile file rows repeating an earlier row of the same file
+ */
+public record ReconcileSummary(long matched, long newInFile, long missingFromFile, long duplicatesInFile) {}
@@ -0,0 +1,10 @@
+package lt.daiva.bankstatement.dto;
+
+import java.util.List;
+
+/**
+ * @param lineNumber line of the uploaded file the record ends on
+ * @param values     raw values in import header order, empty where missing
+ * @param reason     why the record was not imported
+ */
+public record RejectedRecord(long lineNumber, List<String> values, String reason) {}
@@ -0,0 +1,9 @@
+package lt.daiva.bankstatement.dto;
+
+import java.util.List;
+
+/**
+ * @param budgetExceeded the import stopped at the last rejected record because the error
+ *                       budget was exceeded; rows after it were not read
+ */
+public record TolerantImportResult(ImportResult result, List<RejectedRecord> rejects, boolean budgetExceeded) {}
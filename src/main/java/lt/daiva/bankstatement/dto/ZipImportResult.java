@@ -0,0 +1,5 @@
+package lt.daiva.bankstatement.dto;
+
+import java.util.List;
+
+public record ZipImportResult(List<FileImportResult> files, ImportResult total) {}
@@ -0,0 +1,7 @@
+package lt.daiva.bankstatement.exception;
+
+public class AccountNotFoundException extends RuntimeException {
+    public AccountNotFoundException(String accountNumber) {
+        super("Account " + accountNumber + " has no operations");
+    }
+}
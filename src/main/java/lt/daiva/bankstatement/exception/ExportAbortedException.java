@@ -0,0 +1,16 @@
+package lt.daiva.bankstatement.exception;
+
+/**
+ * A streamed export failed after its response was committed. Deliberately not handled by
+ * {@link GlobalExceptionHandler}: it reaches the servlet container, which closes the
+ * connection instead of completing the response, so clients see the export as broken
+ * rather than as a shorter valid one.
+ * <p>
+ * Carries no cause, as handlers are also matched against the cause, e.g. a
+ * {@link BankStatementException}; the caller logs the original failure.
+ */
+public class ExportAbortedException extends RuntimeException {
+    public ExportAbortedException(String message) {
+        super(message);
+    }
+}
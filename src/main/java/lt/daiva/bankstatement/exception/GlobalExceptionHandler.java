@@ -1,6 +1,7 @@
 package lt.daiva.bankstatement.exception;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -38,4 +39,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest()
                 .body(new ApiError("INVALID_CSV_RECORD", e.getMessage()));
     }
+
+    @ExceptionHandler(JournalPendingException.class)
+    public ResponseEntity<ApiError> handleJournalPending(JournalPendingException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiError("JOURNAL_PENDING", e.getMessage()));
+    }
+
+    @ExceptionHandler(JournalFullException.class)
+    public ResponseEntity<ApiError> handleJournalFull(JournalFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiError("JOURNAL_FULL", e.getMessage()));
+    }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<ApiError> handleAccountNotFound(AccountNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiError("ACCOUNT_NOT_FOUND", e.getMessage()));
+    }
 }
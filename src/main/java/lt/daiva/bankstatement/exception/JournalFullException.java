@@ -0,0 +1,7 @@
+package lt.daiva.bankstatement.exception;
+
+public class JournalFullException extends RuntimeException {
+    public JournalFullException(long pendingOperations) {
+        super("Ingest journal holds " + pendingOperations + " operations not applied yet, retry later");
+    }
+}
@@ -0,0 +1,7 @@
+package lt.daiva.bankstatement.exception;
+
+public class JournalPendingException extends RuntimeException {
+    public JournalPendingException(long sequence) {
+        super("Journal sequence " + sequence + " is not applied yet, retry later");
+    }
+}
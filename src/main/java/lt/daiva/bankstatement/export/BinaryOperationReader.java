@@ -0,0 +1,113 @@
+package lt.daiva.bankstatement.export;
+
+import lt.daiva.bankstatement.model.BankOperation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the format written by {@link BinaryOperationWriter}; reference implementation
+ * for consumers of the binary export.
+ */
+public final class BinaryOperationReader {
+
+    private BinaryOperationReader() {
+    }
+
+    /**
+     * @return number of operations passed to {@code consumer}
+     * @throws IOException if the stream is not in the binary export format or truncated
+     */
+    public static long read(InputStream source, Consumer<BankOperation> consumer) throws IOException {
+        var in = new DataInputStream(new BufferedInputStream(source));
+        byte[] magic = new byte[BinaryOperationWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, BinaryOperationWriter.MAGIC)) {
+            throw new IOException("Not a binary bank statement export");
+        }
+        int version = in.readUnsignedByte();
+        if (version != BinaryOperationWriter.VERSION) {
+            throw new IOException("Unsupported binary export version " + version);
+        }
+        int amountScale = in.readUnsignedByte();
+
+        List<String> dictionary = new ArrayList<>();
+        long micros = 0;
+        long count = 0;
+        while (true) {
+            long length = readVarLong(in);
+            if (length < 1 || length > Integer.MAX_VALUE) {
+                throw new IOException("Malformed frame length " + length + " in binary export");
+            }
+            byte[] frame = new byte[(int) length];
+            in.readFully(frame);
+            var payload = new ByteArrayInputStream(frame, 1, frame.length - 1);
+
+            switch (frame[0]) {
+                case BinaryOperationWriter.STRING ->
+                        dictionary.add(new String(frame, 1, frame.length - 1, StandardCharsets.UTF_8));
+                case BinaryOperationWriter.OPERATION -> {
+                    String account = dictionary.get((int) readVarLong(payload));
+                    String currency = dictionary.get((int) readVarLong(payload));
+                    String beneficiary = dictionary.get((int) readVarLong(payload));
+                    micros += unZigZag(readVarLong(payload));
+                    long amount = unZigZag(readVarLong(payload));
+                    int commentLength = (int) readVarLong(payload);
+                    String comment = commentLength == 0
+                            ? null
+                            : new String(payload.readNBytes(commentLength - 1), StandardCharsets.UTF_8);
+
+                    consumer.accept(new BankOperation(account, time(micros), beneficiary, comment,
+                            BigDecimal.valueOf(amount, amountScale), currency));
+                    count++;
+                }
+                case BinaryOperationWriter.END -> {
+                    long expected = readVarLong(payload);
+                    if (expected != count) {
+                        throw new IOException("Expected " + expected + " operations, read " + count);
+                    }
+                    return count;
+                }
+                default -> {
+                    // frame type added by a later version
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime time(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000),
+                (int) Math.floorMod(epochMicros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated binary export");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary export");
+    }
+}
@@ -0,0 +1,126 @@
+package lt.daiva.bankstatement.export;
+
+import lt.daiva.bankstatement.model.BankOperation;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary export, read back by {@link BinaryOperationReader}.
+ * <pre>
+ * header:  "BSOP" version(1 byte) amountScale(1 byte)
+ * frames:  length(varint) type(1 byte) payload(length - 1 bytes)
+ *   STRING     utf-8 bytes; gets the next dictionary id, starting at 0
+ *   OPERATION  account id, currency id, beneficiary id (varints),
+ *              time delta in microseconds from the previous operation (zigzag varint),
+ *              amount as unscaled long at amountScale (zigzag varint),
+ *              comment: 0 for null, otherwise utf-8 length + 1 (varint) and the bytes
+ *   END        number of operations (varint)
+ * </pre>
+ * Account numbers, currencies and beneficiaries share one dictionary per response;
+ * a string is sent once, right before the first operation that uses it. Readers skip
+ * frames of unknown types.
+ */
+public class BinaryOperationWriter implements OperationWriter {
+
+    public static final String MEDIA_TYPE = "application/vnd.bank-statement.operations";
+
+    static final byte[] MAGIC = {'B', 'S', 'O', 'P'};
+    static final int VERSION = 1;
+    static final int AMOUNT_SCALE = 2;
+    static final int STRING = 1;
+    static final int OPERATION = 2;
+    static final int END = 3;
+
+    private final OutputStream out;
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream(128);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private long previousMicros;
+
+    public BinaryOperationWriter(OutputStream target) throws IOException {
+        this.out = new BufferedOutputStream(target);
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(AMOUNT_SCALE);
+    }
+
+    @Override
+    public void write(BankOperation operation) throws IOException {
+        int account = code(operation.getAccountNumber());
+        int currency = code(operation.getCurrency());
+        int beneficiary = code(operation.getBeneficiary());
+        long micros = epochMicros(operation.getOperationTime());
+        long amount = operation.getAmount().setScale(AMOUNT_SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+
+        frame.reset();
+        frame.write(OPERATION);
+        writeVarLong(frame, account);
+        writeVarLong(frame, currency);
+        writeVarLong(frame, beneficiary);
+        writeVarLong(frame, zigZag(micros - previousMicros));
+        writeVarLong(frame, zigZag(amount));
+        if (operation.getOperationComment() == null) {
+            writeVarLong(frame, 0);
+        } else {
+            byte[] comment = operation.getOperationComment().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(frame, comment.length + 1L);
+            frame.write(comment);
+        }
+        writeFrame();
+        previousMicros = micros;
+    }
+
+    @Override
+    public void finish(long count) throws IOException {
+        frame.reset();
+        frame.write(END);
+        writeVarLong(frame, count);
+        writeFrame();
+        out.flush();
+    }
+
+    private int code(String value) throws IOException {
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            return id;
+        }
+        id = dictionary.size();
+        dictionary.put(value, id);
+
+        frame.reset();
+        frame.write(STRING);
+        frame.write(value.getBytes(StandardCharsets.UTF_8));
+        writeFrame();
+        return id;
+    }
+
+    private void writeFrame() throws IOException {
+        writeVarLong(out, frame.size());
+        frame.writeTo(out);
+    }
+
+    static long epochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,46 @@
+package lt.daiva.bankstatement.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lt.daiva.bankstatement.model.BankOperation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Newline-delimited JSON, one object per operation with the CSV column names.
+ * Amounts are plain JSON numbers, times ISO-8601 strings.
+ */
+public class NdjsonOperationWriter implements OperationWriter {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator json;
+
+    public NdjsonOperationWriter(OutputStream out) throws IOException {
+        this.json = JSON_FACTORY.createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        json.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(BankOperation operation) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("accountNumber", operation.getAccountNumber());
+        json.writeStringField("operationDateTime", operation.getOperationTime().toString());
+        json.writeStringField("beneficiary", operation.getBeneficiary());
+        json.writeStringField("comment", operation.getOperationComment());
+        json.writeNumberField("amount", operation.getAmount());
+        json.writeStringField("currency", operation.getCurrency());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    public void finish(long count) throws IOException {
+        json.flush();
+    }
+}
@@ -0,0 +1,20 @@
+package lt.daiva.bankstatement.export;
+
+import lt.daiva.bankstatement.model.BankOperation;
+
+import java.io.IOException;
+
+/**
+ * Writes exported operations one at a time to a response stream.
+ */
+public interface OperationWriter {
+
+    void write(BankOperation operation) throws IOException;
+
+    /**
+     * Completes the output after the last operation and flushes it.
+     *
+     * @param count number of operations written
+     */
+    void finish(long count) throws IOException;
+}
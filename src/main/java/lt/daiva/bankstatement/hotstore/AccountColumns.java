@@ -0,0 +1,112 @@
+package lt.daiva.bankstatement.hotstore;
+
+import java.util.Arrays;
+
+/**
+ * Recent operations of one account as parallel primitive arrays, sorted by time.
+ * All access is synchronized on the instance.
+ */
+final class AccountColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    long[] epochSeconds = new long[INITIAL_CAPACITY];
+    int[] nanos = new int[INITIAL_CAPACITY];
+    long[] amounts = new long[INITIAL_CAPACITY];
+    int[] currencies = new int[INITIAL_CAPACITY];
+    int[] beneficiaries = new int[INITIAL_CAPACITY];
+    int[] comments = new int[INITIAL_CAPACITY];
+    int size;
+
+    /**
+     * Inserts a row keeping time order; rows usually arrive in order, so this is an append.
+     */
+    void insert(long epochSecond, int nano, long amount, int currency, int beneficiary, int comment) {
+        if (size == epochSeconds.length) {
+            grow();
+        }
+        int index = size;
+        while (index > 0 && compare(epochSeconds[index - 1], nanos[index - 1], epochSecond, nano) > 0) {
+            index--;
+        }
+        if (index < size) {
+            shift(index, index + 1, size - index);
+        }
+        epochSeconds[index] = epochSecond;
+        nanos[index] = nano;
+        amounts[index] = amount;
+        currencies[index] = currency;
+        beneficiaries[index] = beneficiary;
+        comments[index] = comment;
+        size++;
+    }
+
+    /**
+     * @return index of the first row at or after the given instant
+     */
+    int lowerBound(long epochSecond, int nano) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(epochSeconds[mid], nanos[mid], epochSecond, nano) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index after the last row at or before the given instant
+     */
+    int upperBound(long epochSecond, int nano) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(epochSeconds[mid], nanos[mid], epochSecond, nano) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Drops all rows before the given epoch second.
+     */
+    void evictBefore(long epochSecond) {
+        int cut = lowerBound(epochSecond, 0);
+        if (cut > 0) {
+            shift(cut, 0, size - cut);
+            size -= cut;
+        }
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(epochSeconds, from, epochSeconds, to, length);
+        System.arraycopy(nanos, from, nanos, to, length);
+        System.arraycopy(amounts, from, amounts, to, length);
+        System.arraycopy(currencies, from, currencies, to, length);
+        System.arraycopy(beneficiaries, from, beneficiaries, to, length);
+        System.arraycopy(comments, from, comments, to, length);
+    }
+
+    private void grow() {
+        int capacity = epochSeconds.length * 2;
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        nanos = Arrays.copyOf(nanos, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        beneficiaries = Arrays.copyOf(beneficiaries, capacity);
+        comments = Arrays.copyOf(comments, capacity);
+    }
+
+    private static int compare(long secondsA, int nanosA, long secondsB, int nanosB) {
+        int bySeconds = Long.compare(secondsA, secondsB);
+        return bySeconds != 0 ? bySeconds : Integer.compare(nanosA, nanosB);
+    }
+}
@@ -0,0 +1,295 @@
+package lt.daiva.bankstatement.hotstore;
+
+import lt.daiva.bankstatement.archive.ArchiveStore;
+import lt.daiva.bankstatement.dto.CurrencyBalance;
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process columnar copy of the operations of the last {@code horizon}, per account.
+ * <p>
+ * Times are kept as epoch seconds (plus nanos), amounts as long minor units and
+ * currency, beneficiary and comment as dictionary codes. The store is fed with every
+ * stored operation and warm-started from the database, and from the archive for months
+ * archived inside the horizon, once the application is ready; it answers only ranges starting inside the horizon. It sees only imports made by
+ * this instance, so it is meant for single-instance deployments.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank-statement.hot-store", name = "enabled", havingValue = "true")
+public class HotOperationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(HotOperationStore.class);
+    private static final int AMOUNT_SCALE = 2;
+    private static final int ITERATOR_CHUNK = 1024;
+
+    private final BankOperationRepository bankOperationRepository;
+    private final ObjectProvider<ArchiveStore> archiveStore;
+    private final Duration horizon;
+    private final Map<String, AccountColumns> accounts = new ConcurrentHashMap<>();
+    private final StringDictionary currencyDictionary = new StringDictionary();
+    private final StringDictionary textDictionary = new StringDictionary();
+
+    private final Object warmUpLock = new Object();
+    /** buffered from construction on, so rows stored before the ready event, e.g. journal replay, are not added twice */
+    private List<BankOperation> storedDuringWarmUp = new ArrayList<>();
+    private volatile boolean ready;
+
+    public HotOperationStore(BankOperationRepository bankOperationRepository,
+                             ObjectProvider<ArchiveStore> archiveStore,
+                             @Value("${bank-statement.hot-store.horizon:90d}") Duration horizon) {
+        this.bankOperationRepository = bankOperationRepository;
+        this.archiveStore = archiveStore;
+        this.horizon = horizon;
+    }
+
+    /**
+     * Loads all operations inside the horizon, live and archived. Operations stored before
+     * or while loading are buffered and added afterwards unless the load already returned them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime from = horizonStart();
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        List<BankOperation> loaded = archive == null
+                ? bankOperationRepository.findByOperationTimeGreaterThanEqual(from)
+                : archive.withSnapshot(() -> load(archive, from));
+        Set<Long> loadedIds = new HashSet<>(loaded.size() * 2);
+        for (BankOperation operation : loaded) {
+            insert(operation);
+            loadedIds.add(operation.getId());
+        }
+        synchronized (warmUpLock) {
+            for (BankOperation operation : storedDuringWarmUp) {
+                if (!loadedIds.contains(operation.getId())) {
+                    insert(operation);
+                }
+            }
+            storedDuringWarmUp = null;
+            ready = true;
+        }
+        log.info("Hot store warmed up with {} operations of {} accounts", loaded.size(), accounts.size());
+    }
+
+    /**
+     * Reads both sides under one snapshot, so a month being archived meanwhile is seen exactly once.
+     */
+    private List<BankOperation> load(ArchiveStore archive, LocalDateTime from) {
+        List<BankOperation> loaded = new ArrayList<>(bankOperationRepository.findByOperationTimeGreaterThanEqual(from));
+        for (String accountNumber : archive.accounts()) {
+            loaded.addAll(archive.read(accountNumber, from, null));
+        }
+        return loaded;
+    }
+
+    /**
+     * Adds an operation that was just stored in the database.
+     */
+    public void add(BankOperation operation) {
+        synchronized (warmUpLock) {
+            if (storedDuringWarmUp != null) {
+                storedDuringWarmUp.add(operation);
+                return;
+            }
+        }
+        insert(operation);
+    }
+
+    /**
+     * @return true if every operation at or after {@code from} is held by the store
+     */
+    public boolean covers(LocalDateTime from) {
+        return ready && from != null && !from.isBefore(horizonStart());
+    }
+
+    public List<CurrencyBalance> balances(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        AccountColumns columns = accounts.get(accountNumber);
+        if (columns == null) {
+            return List.of();
+        }
+        long[] sums;
+        boolean[] seen;
+        synchronized (columns) {
+            int start = columns.lowerBound(epochSecond(from), from.getNano());
+            int end = to == null ? columns.size : columns.upperBound(epochSecond(to), to.getNano());
+            sums = new long[currencyDictionary.size()];
+            seen = new boolean[sums.length];
+            for (int i = start; i < end; i++) {
+                sums[columns.currencies[i]] += columns.amounts[i];
+                seen[columns.currencies[i]] = true;
+            }
+        }
+        List<CurrencyBalance> balances = new ArrayList<>();
+        for (int currency = 0; currency < sums.length; currency++) {
+            if (seen[currency]) {
+                balances.add(new CurrencyBalance(
+                        currencyDictionary.decode(currency), BigDecimal.valueOf(sums[currency], AMOUNT_SCALE)));
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * @return operations in findForExport order: by account, then by operation time
+     */
+    public List<BankOperation> operations(List<String> accountNumbers, LocalDateTime from, LocalDateTime to) {
+        List<BankOperation> operations = new ArrayList<>();
+        iterator(accountNumbers, from, to).forEachRemaining(operations::add);
+        return operations;
+    }
+
+    /**
+     * Same operations as {@link #operations}, read lazily in chunks of about
+     * {@value #ITERATOR_CHUNK} rows, so that a streamed export neither copies a whole
+     * account nor holds its lock while writing to a slow client.
+     */
+    public Iterator<BankOperation> iterator(List<String> accountNumbers, LocalDateTime from, LocalDateTime to) {
+        return new ChunkIterator(accountNumbers.stream().distinct().sorted().iterator(), from, to);
+    }
+
+    @Scheduled(fixedDelayString = "${bank-statement.hot-store.eviction-interval:PT1H}")
+    public void evictExpired() {
+        long cutoff = epochSecond(horizonStart());
+        accounts.forEach((accountNumber, columns) -> {
+            synchronized (columns) {
+                columns.evictBefore(cutoff);
+                if (columns.size == 0) {
+                    accounts.remove(accountNumber, columns);
+                }
+            }
+        });
+    }
+
+    private void insert(BankOperation operation) {
+        LocalDateTime time = operation.getOperationTime();
+        if (time.isBefore(horizonStart())) {
+            return;
+        }
+        long amount = operation.getAmount().setScale(AMOUNT_SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+        int currency = currencyDictionary.encode(operation.getCurrency());
+        int beneficiary = textDictionary.encode(operation.getBeneficiary());
+        int comment = textDictionary.encode(operation.getOperationComment() == null ? "" : operation.getOperationComment());
+
+        while (true) {
+            AccountColumns columns = accounts.computeIfAbsent(operation.getAccountNumber(), key -> new AccountColumns());
+            synchronized (columns) {
+                // an evicted, emptied instance may have been removed from the map meanwhile
+                if (accounts.get(operation.getAccountNumber()) == columns) {
+                    columns.insert(epochSecond(time), time.getNano(), amount, currency, beneficiary, comment);
+                    return;
+                }
+            }
+        }
+    }
+
+    private final class ChunkIterator implements Iterator<BankOperation> {
+
+        private final Iterator<String> accountNumbers;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final ArrayDeque<BankOperation> chunk = new ArrayDeque<>();
+        private String accountNumber;
+        private AccountColumns columns;
+        /** time of the last row read from {@link #columns}; the next chunk starts after it */
+        private long lastSecond;
+        private int lastNano;
+        private boolean started;
+
+        ChunkIterator(Iterator<String> accountNumbers, LocalDateTime from, LocalDateTime to) {
+            this.accountNumbers = accountNumbers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (chunk.isEmpty()) {
+                if (columns == null) {
+                    if (!accountNumbers.hasNext()) {
+                        return false;
+                    }
+                    accountNumber = accountNumbers.next();
+                    columns = accounts.get(accountNumber);
+                    started = false;
+                } else {
+                    readChunk();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public BankOperation next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.poll();
+        }
+
+        /**
+         * Reads the next rows of the current account. A chunk never ends between rows of
+         * the same time, as the next one resumes after that time.
+         */
+        private void readChunk() {
+            synchronized (columns) {
+                int start = started ? columns.upperBound(lastSecond, lastNano)
+                        : columns.lowerBound(epochSecond(from), from.getNano());
+                int end = to == null ? columns.size : columns.upperBound(epochSecond(to), to.getNano());
+                int limit = Math.min(end, start + ITERATOR_CHUNK);
+                while (limit < end && columns.epochSeconds[limit] == columns.epochSeconds[limit - 1]
+                        && columns.nanos[limit] == columns.nanos[limit - 1]) {
+                    limit++;
+                }
+                for (int i = start; i < limit; i++) {
+                    chunk.add(new BankOperation(
+                            accountNumber,
+                            LocalDateTime.ofEpochSecond(columns.epochSeconds[i], columns.nanos[i], ZoneOffset.UTC),
+                            textDictionary.decode(columns.beneficiaries[i]),
+                            textDictionary.decode(columns.comments[i]),
+                            BigDecimal.valueOf(columns.amounts[i], AMOUNT_SCALE),
+                            currencyDictionary.decode(columns.currencies[i])
+                    ));
+                }
+                if (limit >= end) {
+                    columns = null;
+                    return;
+                }
+                lastSecond = columns.epochSeconds[limit - 1];
+                lastNano = columns.nanos[limit - 1];
+                started = true;
+            }
+        }
+    }
+
+    private LocalDateTime horizonStart() {
+        return LocalDateTime.now().minus(horizon);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
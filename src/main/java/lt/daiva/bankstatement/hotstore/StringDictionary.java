@@ -0,0 +1,40 @@
+package lt.daiva.bankstatement.hotstore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only string to int code mapping shared by all accounts of the hot store.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (values) {
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+    }
+
+    String decode(int code) {
+        synchronized (values) {
+            return values.get(code);
+        }
+    }
+
+    int size() {
+        synchronized (values) {
+            return values.size();
+        }
+    }
+}
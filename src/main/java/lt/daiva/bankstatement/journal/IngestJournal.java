@@ -0,0 +1,507 @@
+package lt.daiva.bankstatement.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lt.daiva.bankstatement.dto.JournalStatus;
+import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.exception.JournalFullException;
+import lt.daiva.bankstatement.model.BankOperation;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, fsync-batched journal of parsed operations.
+ * <p>
+ * Imports are acknowledged once their entries are forced to disk; concurrent appenders
+ * share a single fsync. Entries are kept in segment files named after their first
+ * sequence and are handed to the applier in sequence order. A segment is deleted once
+ * all of its entries are applied, and the applied sequence is kept in {@code applied-sequence}.
+ * On startup the entries after it are replayed; the file is not forced to disk, and
+ * re-applying an already stored operation is harmless, because it is skipped as a duplicate.
+ * <p>
+ * Appends block while more than {@code max-pending} operations are not yet applied.
+ * A failed fsync cuts the active segment back to its last durable length and fails
+ * the journal: entries of the failed sync are never applied and later appends are
+ * refused until restart. Operations the database rejects for good are written to
+ * {@code dead-letter.csv} in the import format instead of blocking the journal.
+ * <p>
+ * Entry layout: payload length (int), payload, CRC32 of the payload (int).
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank-statement.journal", name = "enabled", havingValue = "true")
+public class IngestJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestJournal.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DEAD_LETTER_FILE = "dead-letter.csv";
+    private static final String APPLIED_FILE = "applied-sequence";
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long maxPending;
+    private final Duration appendTimeout;
+    private final Object syncLock = new Object();
+
+    /** first sequence of each segment -> segment file; the last one is the active segment */
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final Deque<JournalEntry> pending = new ArrayDeque<>();
+    private FileChannel channel;
+    private long lastSequence;
+    private volatile long durableSequence;
+    /** length of the active segment up to durableSequence */
+    private long durablePosition;
+    private long appliedSequence;
+    private boolean failed;
+
+    public IngestJournal(@Value("${bank-statement.journal.directory}") Path directory,
+                         @Value("${bank-statement.journal.segment-size:16MB}") DataSize segmentSize,
+                         @Value("${bank-statement.journal.max-pending:100000}") long maxPending,
+                         @Value("${bank-statement.journal.append-timeout:10s}") Duration appendTimeout) {
+        this.directory = directory;
+        this.segmentSize = segmentSize.toBytes();
+        this.maxPending = maxPending;
+        this.appendTimeout = appendTimeout;
+    }
+
+    /**
+     * Recovers entries left over from a previous run and opens the active segment.
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        try (var files = Files.list(directory)) {
+            files.filter(IngestJournal::isSegment)
+                    .forEach(path -> segments.put(firstSequenceOf(path), path));
+        }
+
+        long recoveredApplied = readApplied();
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            lastSequence = Math.max(lastSequence, segment.getKey() - 1);
+            recover(segment.getValue(), recoveredApplied);
+        }
+        // sequences must keep growing past the applied one, or new entries would be skipped on replay
+        lastSequence = Math.max(lastSequence, recoveredApplied);
+        if (pending.isEmpty()) {
+            // everything is applied: start over with an empty active segment instead of rescanning it next time
+            for (Path segment : segments.values()) {
+                Files.deleteIfExists(segment);
+            }
+            segments.clear();
+        }
+
+        if (segments.isEmpty()) {
+            segments.put(lastSequence + 1, segmentPath(lastSequence + 1));
+        }
+        channel = FileChannel.open(segments.lastEntry().getValue(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        durableSequence = lastSequence;
+        durablePosition = channel.size();
+        appliedSequence = pending.isEmpty() ? lastSequence : pending.peekFirst().sequence() - 1;
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} journaled operations pending apply", pending.size());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    /**
+     * Appends operations to the journal and returns once they are durable. Waits up to
+     * {@code append-timeout} while the journal holds {@code max-pending} unapplied operations.
+     *
+     * @return journal sequence of the last appended operation
+     * @throws JournalFullException if the applier did not catch up in time
+     */
+    public long append(List<BankOperation> operations) {
+        long sequence;
+        synchronized (this) {
+            awaitCapacity(operations.size());
+            var buffer = new ByteArrayOutputStream(operations.size() * 128);
+            List<JournalEntry> entries = new ArrayList<>(operations.size());
+            for (BankOperation operation : operations) {
+                JournalEntry entry = JournalEntry.of(lastSequence + entries.size() + 1, operation);
+                writeEntry(buffer, entry);
+                entries.add(entry);
+            }
+            writeOrRollBack(ByteBuffer.wrap(buffer.toByteArray()));
+            pending.addAll(entries);
+            lastSequence += entries.size();
+            sequence = lastSequence;
+        }
+        sync(sequence);
+        return sequence;
+    }
+
+    /**
+     * Waits for durable entries that are not yet applied.
+     *
+     * @return up to {@code max} entries in sequence order, empty if none arrived in time
+     */
+    public synchronized List<JournalEntry> poll(int max, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending.isEmpty() || pending.peekFirst().sequence() > durableSequence) {
+            long remainingMillis = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remainingMillis <= 0) {
+                return List.of();
+            }
+            wait(remainingMillis);
+        }
+
+        List<JournalEntry> batch = new ArrayList<>(Math.min(max, pending.size()));
+        while (batch.size() < max && !pending.isEmpty() && pending.peekFirst().sequence() <= durableSequence) {
+            batch.add(pending.pollFirst());
+        }
+        return batch;
+    }
+
+    /**
+     * Advances the applied watermark, records it for replay and deletes segments that are fully applied.
+     */
+    public synchronized void markApplied(long sequence) {
+        appliedSequence = Math.max(appliedSequence, sequence);
+        notifyAll();
+        writeApplied();
+
+        Long first = segments.firstKey();
+        while (!first.equals(segments.lastKey())) {
+            long next = segments.higherKey(first);
+            if (next - 1 > appliedSequence) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segments.remove(first));
+            } catch (IOException e) {
+                log.warn("Failed to delete applied journal segment", e);
+                break;
+            }
+            first = segments.firstKey();
+        }
+    }
+
+    /**
+     * @return true if the sequence was applied before the timeout elapsed
+     */
+    public synchronized boolean awaitApplied(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (appliedSequence < sequence) {
+            long remainingMillis = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            wait(remainingMillis);
+        }
+        return true;
+    }
+
+    /**
+     * Records an entry the database rejects for good, so the applier can move past it.
+     * The file can be corrected and imported again.
+     */
+    public synchronized void deadLetter(JournalEntry entry, String reason) {
+        Path file = deadLetterFile();
+        try {
+            boolean created = !Files.exists(file);
+            try (var printer = new CSVPrinter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), CSVFormat.DEFAULT)) {
+                if (created) {
+                    printer.printRecord("accountNumber", "operationDateTime", "beneficiary", "comment",
+                            "amount", "currency", "sequence", "error");
+                }
+                printer.printRecord(entry.accountNumber(), entry.operationTime(), entry.beneficiary(),
+                        entry.operationComment(), entry.amount().toPlainString(), entry.currency(),
+                        entry.sequence(), reason);
+            }
+        } catch (IOException e) {
+            log.error("Failed to write journal sequence {} to {}", entry.sequence(), file, e);
+        }
+    }
+
+    public Path deadLetterFile() {
+        return directory.resolve(DEAD_LETTER_FILE);
+    }
+
+    public synchronized JournalStatus status() {
+        return new JournalStatus(lastSequence, appliedSequence, lastSequence - appliedSequence);
+    }
+
+    /**
+     * Forces the active segment unless a concurrent caller already made the sequence durable.
+     * Rolling happens here, under the sync lock, so a segment is never closed while being forced.
+     */
+    private void sync(long sequence) {
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long target;
+            long position;
+            FileChannel active;
+            synchronized (this) {
+                if (failed) {
+                    throw unavailable();
+                }
+                target = lastSequence;
+                active = channel;
+            }
+            try {
+                position = active.size();
+                active.force(false);
+            } catch (IOException e) {
+                fail(e);
+                throw new BankStatementException("Failed to sync ingest journal: " + e.getMessage(), e);
+            }
+
+            synchronized (this) {
+                durableSequence = target;
+                durablePosition = position;
+                try {
+                    if (channel.size() >= segmentSize) {
+                        roll();
+                    }
+                } catch (IOException e) {
+                    fail(e);
+                    throw new BankStatementException("Failed to roll ingest journal: " + e.getMessage(), e);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Blocks while appending {@code count} more operations would exceed {@code max-pending};
+     * a batch larger than the limit is let through once the journal is drained.
+     */
+    private void awaitCapacity(int count) {
+        long deadline = System.nanoTime() + appendTimeout.toNanos();
+        try {
+            while (!failed && lastSequence > appliedSequence && lastSequence - appliedSequence + count > maxPending) {
+                long remainingMillis = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+                if (remainingMillis <= 0) {
+                    throw new JournalFullException(lastSequence - appliedSequence);
+                }
+                wait(remainingMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JournalFullException(lastSequence - appliedSequence);
+        }
+        if (failed) {
+            throw unavailable();
+        }
+    }
+
+    /**
+     * After a failed fsync the state of the unsynced bytes is unknown: they are cut off
+     * and their entries dropped, so an import that got an error is not applied later.
+     */
+    private synchronized void fail(IOException cause) {
+        failed = true;
+        pending.removeIf(entry -> entry.sequence() > durableSequence);
+        lastSequence = durableSequence;
+        try {
+            channel.truncate(durablePosition);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+        log.error("Ingest journal failed at sequence {}, refusing appends until restart", durableSequence, cause);
+        notifyAll();
+    }
+
+    private static BankStatementException unavailable() {
+        return new BankStatementException("Ingest journal is unavailable after a failed sync, restart required");
+    }
+
+    /**
+     * Writes the bytes to the active segment; a partially written batch is cut off again,
+     * so later entries are not hidden behind a torn one during recovery.
+     */
+    private void writeOrRollBack(ByteBuffer bytes) {
+        long position = -1;
+        try {
+            position = channel.size();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            if (position >= 0) {
+                try {
+                    channel.truncate(position);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new BankStatementException("Failed to write ingest journal: " + e.getMessage(), e);
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.force(true);
+        channel.close();
+        durableSequence = lastSequence;
+        durablePosition = 0;
+        long first = lastSequence + 1;
+        segments.put(first, segmentPath(first));
+        channel = FileChannel.open(segments.get(first),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads the complete entries of a segment after {@code applied} into the pending queue
+     * and cuts off a torn tail.
+     */
+    private void recover(Path segment, long applied) throws IOException {
+        long validLength = 0;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                int checksum = in.readInt();
+                if (checksum != crc(payload)) {
+                    break;
+                }
+                JournalEntry entry = readPayload(payload);
+                if (entry.sequence() > applied) {
+                    pending.addLast(entry);
+                }
+                lastSequence = Math.max(lastSequence, entry.sequence());
+                validLength += Integer.BYTES + length + Integer.BYTES;
+            }
+        } catch (EOFException e) {
+            // torn write at the end of the segment
+        }
+
+        if (validLength < Files.size(segment)) {
+            log.warn("Truncating incomplete journal segment {} at {} bytes", segment.getFileName(), validLength);
+            try (var truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                truncate.truncate(validLength);
+                truncate.force(true);
+            }
+        }
+    }
+
+    private long readApplied() throws IOException {
+        Path file = directory.resolve(APPLIED_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(file).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring unreadable {}, replaying all journaled operations", APPLIED_FILE);
+            return 0;
+        }
+    }
+
+    /**
+     * Replaces the applied sequence file; losing an update only means replaying more.
+     */
+    private void writeApplied() {
+        Path file = directory.resolve(APPLIED_FILE);
+        Path temp = directory.resolve(APPLIED_FILE + ".tmp");
+        try {
+            Files.writeString(temp, Long.toString(appliedSequence));
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to record applied journal sequence {}", appliedSequence, e);
+        }
+    }
+
+    private static void writeEntry(ByteArrayOutputStream target, JournalEntry entry) {
+        try {
+            var payload = new ByteArrayOutputStream(128);
+            var out = new DataOutputStream(payload);
+            out.writeLong(entry.sequence());
+            out.writeUTF(entry.accountNumber());
+            out.writeUTF(entry.operationTime().toString());
+            out.writeUTF(entry.beneficiary());
+            out.writeUTF(entry.operationComment() == null ? "" : entry.operationComment());
+            out.writeUTF(entry.amount().toPlainString());
+            out.writeUTF(entry.currency());
+            out.flush();
+
+            byte[] bytes = payload.toByteArray();
+            var framed = new DataOutputStream(target);
+            framed.writeInt(bytes.length);
+            framed.write(bytes);
+            framed.writeInt(crc(bytes));
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to encode journal entry: " + e.getMessage(), e);
+        }
+    }
+
+    private static JournalEntry readPayload(byte[] payload) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(payload));
+        return new JournalEntry(
+                in.readLong(),
+                in.readUTF(),
+                LocalDateTime.parse(in.readUTF()),
+                in.readUTF(),
+                in.readUTF(),
+                new BigDecimal(in.readUTF()),
+                in.readUTF()
+        );
+    }
+
+    private static int crc(byte[] bytes) {
+        var crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,38 @@
+package lt.daiva.bankstatement.journal;
+
+import lt.daiva.bankstatement.model.BankOperation;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Parsed bank operation as stored in the ingest journal, tagged with its journal sequence.
+ */
+public record JournalEntry(long sequence,
+                           String accountNumber,
+                           LocalDateTime operationTime,
+                           String beneficiary,
+                           String operationComment,
+                           BigDecimal amount,
+                           String currency) {
+
+    public static JournalEntry of(long sequence, BankOperation operation) {
+        return new JournalEntry(
+                sequence,
+                operation.getAccountNumber(),
+                operation.getOperationTime(),
+                operation.getBeneficiary(),
+                operation.getOperationComment(),
+                operation.getAmount(),
+                operation.getCurrency()
+        );
+    }
+
+    /**
+     * Creates a new, not yet persisted entity. A fresh instance is needed for every
+     * insert attempt, because a rolled back insert leaves the generated id behind.
+     */
+    public BankOperation toOperation() {
+        return new BankOperation(accountNumber, operationTime, beneficiary, operationComment, amount, currency);
+    }
+}
@@ -0,0 +1,61 @@
+package lt.daiva.bankstatement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of one account in one currency, maintained on import.
+ */
+@Entity
+@Table(name = "account_summary")
+public class AccountSummary {
+    @EmbeddedId
+    private AccountSummaryId id;
+
+    @Column(name = "operation_count", nullable = false)
+    private long operationCount;
+
+    @Column(name = "first_operation_time", nullable = false)
+    private LocalDateTime firstOperationTime;
+
+    @Column(name = "last_operation_time", nullable = false)
+    private LocalDateTime lastOperationTime;
+
+    @Column(name = "credit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditTotal;
+
+    @Column(name = "debit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitTotal;
+
+    protected AccountSummary() {
+    }
+
+    public AccountSummaryId getId() {
+        return id;
+    }
+
+    public long getOperationCount() {
+        return operationCount;
+    }
+
+    public LocalDateTime getFirstOperationTime() {
+        return firstOperationTime;
+    }
+
+    public LocalDateTime getLastOperationTime() {
+        return lastOperationTime;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+}
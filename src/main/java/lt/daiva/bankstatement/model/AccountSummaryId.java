@@ -0,0 +1,45 @@
+package lt.daiva.bankstatement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class AccountSummaryId implements Serializable {
+
+    @Column(name = "account_number", nullable = false, length = BankOperation.ACCOUNT_NUMBER_LENGTH)
+    private String accountNumber;
+
+    @Column(nullable = false, length = BankOperation.CURRENCY_LENGTH)
+    private String currency;
+
+    protected AccountSummaryId() {
+    }
+
+    public AccountSummaryId(String accountNumber, String currency) {
+        this.accountNumber = accountNumber;
+        this.currency = currency;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AccountSummaryId other
+                && accountNumber.equals(other.accountNumber)
+                && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(accountNumber, currency);
+    }
+}
@@ -13,26 +13,40 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "bank_operation")
 public class BankOperation {
+    /** column limits of bank_operation, checked before an operation is journaled */
+    public static final int ACCOUNT_NUMBER_LENGTH = 34;
+    public static final int BENEFICIARY_LENGTH = 255;
+    public static final int COMMENT_LENGTH = 1024;
+    public static final int CURRENCY_LENGTH = 3;
+    public static final int AMOUNT_PRECISION = 19;
+    public static final int AMOUNT_SCALE = 2;
+    /**
+     * Digits an accepted amount may have, one less than the column: the hot store, the
+     * archive and the binary export keep amounts as long minor units, and 19 digits
+     * would exceed Long.MAX_VALUE.
+     */
+    public static final int MAX_AMOUNT_DIGITS = 18;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "account_number", nullable = false, length = 34)
+    @Column(name = "account_number", nullable = false, length = ACCOUNT_NUMBER_LENGTH)
     private String accountNumber;
 
     @Column(name = "operation_time", nullable = false)
     private LocalDateTime operationTime;
 
-    @Column(nullable = false, length = 255)
+    @Column(nullable = false, length = BENEFICIARY_LENGTH)
     private String beneficiary;
 
-    @Column(name = "operation_comment", length = 1024)
+    @Column(name = "operation_comment", length = COMMENT_LENGTH)
     private String operationComment;
 
-    @Column(nullable = false, precision = 19, scale = 2)
+    @Column(nullable = false, precision = AMOUNT_PRECISION, scale = AMOUNT_SCALE)
     private BigDecimal amount;
 
-    @Column(nullable = false, length = 3)
+    @Column(nullable = false, length = CURRENCY_LENGTH)
     private String currency;
 
     protected BankOperation() {
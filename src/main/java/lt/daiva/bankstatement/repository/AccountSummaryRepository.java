@@ -0,0 +1,74 @@
+package lt.daiva.bankstatement.repository;
+
+import lt.daiva.bankstatement.model.AccountSummary;
+import lt.daiva.bankstatement.model.AccountSummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AccountSummaryRepository extends JpaRepository<AccountSummary, AccountSummaryId> {
+
+    List<AccountSummary> findByIdAccountNumberOrderByIdCurrency(String accountNumber);
+
+    boolean existsByIdAccountNumber(String accountNumber);
+
+    /**
+     * Adds the totals of newly stored operations of one account and currency.
+     */
+    @Modifying
+    @Query(value = """
+                merge into account_summary s
+                using (select cast(:accountNumber as varchar(64)) as account_number,
+                              cast(:currency as varchar(8)) as currency,
+                              cast(:operationCount as bigint) as operation_count,
+                              cast(:firstOperationTime as timestamp) as first_operation_time,
+                              cast(:lastOperationTime as timestamp) as last_operation_time,
+                              cast(:creditTotal as decimal(19, 2)) as credit_total,
+                              cast(:debitTotal as decimal(19, 2)) as debit_total) d
+                on s.account_number = d.account_number and s.currency = d.currency
+                when matched then update set
+                    operation_count = s.operation_count + d.operation_count,
+                    first_operation_time = least(s.first_operation_time, d.first_operation_time),
+                    last_operation_time = greatest(s.last_operation_time, d.last_operation_time),
+                    credit_total = s.credit_total + d.credit_total,
+                    debit_total = s.debit_total + d.debit_total
+                when not matched then insert
+                    (account_number, currency, operation_count, first_operation_time,
+                     last_operation_time, credit_total, debit_total)
+                    values (d.account_number, d.currency, d.operation_count, d.first_operation_time,
+                            d.last_operation_time, d.credit_total, d.debit_total)
+            """, nativeQuery = true)
+    void add(@Param("accountNumber") String accountNumber,
+             @Param("currency") String currency,
+             @Param("operationCount") long operationCount,
+             @Param("firstOperationTime") LocalDateTime firstOperationTime,
+             @Param("lastOperationTime") LocalDateTime lastOperationTime,
+             @Param("creditTotal") BigDecimal creditTotal,
+             @Param("debitTotal") BigDecimal debitTotal);
+
+    /**
+     * Same statement as the initial fill in the migration creating the table.
+     */
+    @Modifying
+    @Query(value = """
+                insert into account_summary (account_number, currency, operation_count,
+                                             first_operation_time, last_operation_time, credit_total, debit_total)
+                select account_number,
+                       currency,
+                       count(*),
+                       min(operation_time),
+                       max(operation_time),
+                       coalesce(sum(case when amount > 0 then amount end), 0),
+                       coalesce(sum(case when amount < 0 then -amount end), 0)
+                from bank_operation
+                group by account_number, currency
+            """, nativeQuery = true)
+    int insertFromOperations();
+}
@@ -1,14 +1,19 @@
 package lt.daiva.bankstatement.repository;
 
+import jakarta.persistence.QueryHint;
 import lt.daiva.bankstatement.dto.CurrencyBalance;
 import lt.daiva.bankstatement.model.BankOperation;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BankOperationRepository extends JpaRepository<BankOperation, Long> {
@@ -27,6 +32,31 @@ public interface BankOperationRepository extends JpaRepository<BankOperation, Lo
             @Param("to") LocalDateTime to
     );
 
+    /**
+     * Same rows and order as {@link #findForExport}, fetched in batches as unmanaged
+     * instances so that the persistence context does not grow while streaming.
+     * Must be consumed and closed inside a transaction.
+     * <p>
+     * Keep the constructor expression: StatementReconciler compares whole accounts
+     * through this stream and relies on the rows not being managed entities, which
+     * would otherwise accumulate in its read-only transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+                select new lt.daiva.bankstatement.model.BankOperation(
+                    b.accountNumber, b.operationTime, b.beneficiary, b.operationComment, b.amount, b.currency)
+                from BankOperation b
+                where b.accountNumber in :accounts
+                  and (:from is null or b.operationTime >= :from)
+                  and (:to   is null or b.operationTime <= :to)
+                order by b.accountNumber, b.operationTime
+            """)
+    Stream<BankOperation> streamForExport(
+            @Param("accounts") Collection<String> accounts,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
     @Query("""
                 select b.currency, sum(b.amount)
                 from BankOperation b
@@ -40,4 +70,29 @@ public interface BankOperationRepository extends JpaRepository<BankOperation, Lo
             @Param("from") LocalDateTime from,
             @Param("to") LocalDateTime to
     );
+
+    @Query("""
+                select distinct b.accountNumber
+                from BankOperation b
+                where b.operationTime < :before
+            """)
+    List<String> findAccountsWithOperationsBefore(@Param("before") LocalDateTime before);
+
+    @Query("""
+                select min(b.operationTime)
+                from BankOperation b
+                where b.accountNumber = :accountNumber
+                  and (:from is null or b.operationTime >= :from)
+                  and b.operationTime < :before
+            """)
+    LocalDateTime findFirstOperationTime(
+            @Param("accountNumber") String accountNumber,
+            @Param("from") LocalDateTime from,
+            @Param("before") LocalDateTime before
+    );
+
+    List<BankOperation> findByAccountNumberAndOperationTimeGreaterThanEqualAndOperationTimeLessThanOrderByOperationTime(
+            String accountNumber, LocalDateTime from, LocalDateTime before);
+
+    List<BankOperation> findByOperationTimeGreaterThanEqual(LocalDateTime from);
 }
@@ -0,0 +1,54 @@
+package lt.daiva.bankstatement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the account summaries on startup, before the web server accepts imports
+ * and before the {@link JournalApplier} replays the journal, as
+ * {@link AccountSummaryService#rebuild()} must not run alongside either.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank-statement.summary", name = "rebuild-on-startup", havingValue = "true")
+public class AccountSummaryRebuilder implements SmartLifecycle {
+
+    /**
+     * Below the web server, which starts at {@code SMART_LIFECYCLE_PHASE - 1024},
+     * and the journal applier at the default phase.
+     */
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSummaryRebuilder.class);
+
+    private final AccountSummaryService accountSummaryService;
+    private volatile boolean running;
+
+    public AccountSummaryRebuilder(AccountSummaryService accountSummaryService) {
+        this.accountSummaryService = accountSummaryService;
+    }
+
+    @Override
+    public void start() {
+        log.info("Rebuilt account summaries: {} rows", accountSummaryService.rebuild());
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
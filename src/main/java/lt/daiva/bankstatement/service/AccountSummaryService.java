@@ -0,0 +1,154 @@
+package lt.daiva.bankstatement.service;
+
+import lt.daiva.bankstatement.archive.ArchiveStore;
+import lt.daiva.bankstatement.dto.AccountSummaryResponse;
+import lt.daiva.bankstatement.dto.CurrencySummary;
+import lt.daiva.bankstatement.exception.AccountNotFoundException;
+import lt.daiva.bankstatement.model.AccountSummary;
+import lt.daiva.bankstatement.model.AccountSummaryId;
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.repository.AccountSummaryRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the account_summary table: per account and currency, the operation
+ * count, first and last operation time and lifetime credit and debit totals.
+ * <p>
+ * Totals are added in the transaction that stores the rows, so reading a summary
+ * never scans bank_operation and a committed row is always counted.
+ * {@link #rebuild()} recomputes the table from the stored and archived operations,
+ * e.g. after rows were changed outside the application.
+ */
+@Service
+public class AccountSummaryService {
+
+    private static final Comparator<AccountSummaryId> SUMMARY_ORDER = Comparator
+            .comparing(AccountSummaryId::getAccountNumber)
+            .thenComparing(AccountSummaryId::getCurrency);
+
+    private final AccountSummaryRepository accountSummaryRepository;
+    private final ObjectProvider<ArchiveStore> archiveStore;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rejectUnknownAccounts;
+
+    public AccountSummaryService(AccountSummaryRepository accountSummaryRepository,
+                                 ObjectProvider<ArchiveStore> archiveStore,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${bank-statement.summary.reject-unknown-accounts:false}") boolean rejectUnknownAccounts) {
+        this.accountSummaryRepository = accountSummaryRepository;
+        this.archiveStore = archiveStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rejectUnknownAccounts = rejectUnknownAccounts;
+    }
+
+    /**
+     * Adds stored operations to the summaries, one statement per account and currency.
+     * Rows are updated in key order so that concurrent imports cannot deadlock.
+     * Joins the caller's transaction if there is one.
+     */
+    public void record(Collection<BankOperation> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        Map<AccountSummaryId, Totals> totals = new TreeMap<>(SUMMARY_ORDER);
+        for (BankOperation operation : stored) {
+            totals.computeIfAbsent(new AccountSummaryId(operation.getAccountNumber(), operation.getCurrency()),
+                    key -> new Totals()).add(operation);
+        }
+        transactionTemplate.executeWithoutResult(status -> totals.forEach((key, total) ->
+                accountSummaryRepository.add(key.getAccountNumber(), key.getCurrency(), total.count,
+                        total.first, total.last, total.credit, total.debit)));
+    }
+
+    /**
+     * @throws AccountNotFoundException if the account has no operations
+     */
+    public AccountSummaryResponse summary(String accountNumber) {
+        List<AccountSummary> rows = accountSummaryRepository.findByIdAccountNumberOrderByIdCurrency(accountNumber);
+        if (rows.isEmpty()) {
+            throw new AccountNotFoundException(accountNumber);
+        }
+        long count = 0;
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        List<CurrencySummary> currencies = new ArrayList<>(rows.size());
+        for (AccountSummary row : rows) {
+            count += row.getOperationCount();
+            first = first == null || row.getFirstOperationTime().isBefore(first) ? row.getFirstOperationTime() : first;
+            last = last == null || row.getLastOperationTime().isAfter(last) ? row.getLastOperationTime() : last;
+            currencies.add(new CurrencySummary(
+                    row.getId().getCurrency(), row.getOperationCount(), row.getCreditTotal(), row.getDebitTotal()));
+        }
+        return new AccountSummaryResponse(accountNumber, count, first, last, currencies);
+    }
+
+    /**
+     * Existence check for reads of a single account; a no-op unless
+     * {@code bank-statement.summary.reject-unknown-accounts} is set.
+     *
+     * @throws AccountNotFoundException if enabled and the account has no operations
+     */
+    public void requireKnown(String accountNumber) {
+        if (rejectUnknownAccounts && !accountSummaryRepository.existsByIdAccountNumber(accountNumber)) {
+            throw new AccountNotFoundException(accountNumber);
+        }
+    }
+
+    /**
+     * Recomputes all summaries in one transaction. Imports running meanwhile may be
+     * counted twice or not at all, so run it while no imports are in progress;
+     * {@link AccountSummaryRebuilder} does so on startup.
+     *
+     * @return number of summary rows written
+     */
+    public int rebuild() {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        Integer rows = transactionTemplate.execute(status -> {
+            accountSummaryRepository.deleteAllInBatch();
+            int inserted = accountSummaryRepository.insertFromOperations();
+            if (archive == null) {
+                return inserted;
+            }
+            return archive.withSnapshot(() -> {
+                for (String accountNumber : archive.accounts()) {
+                    record(archive.read(accountNumber, null, null));
+                }
+                return (int) accountSummaryRepository.count();
+            });
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static final class Totals {
+        long count;
+        LocalDateTime first;
+        LocalDateTime last;
+        BigDecimal credit = BigDecimal.ZERO;
+        BigDecimal debit = BigDecimal.ZERO;
+
+        void add(BankOperation operation) {
+            LocalDateTime time = operation.getOperationTime();
+            count++;
+            first = first == null || time.isBefore(first) ? time : first;
+            last = last == null || time.isAfter(last) ? time : last;
+            if (operation.getAmount().signum() > 0) {
+                credit = credit.add(operation.getAmount());
+            } else {
+                debit = debit.subtract(operation.getAmount());
+            }
+        }
+    }
+}
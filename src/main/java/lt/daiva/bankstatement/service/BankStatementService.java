@@ -1,36 +1,72 @@
 package lt.daiva.bankstatement.service;
 
+import lt.daiva.bankstatement.archive.ArchiveStore;
+import lt.daiva.bankstatement.datasource.ReadWriteRoutingDataSource;
+import lt.daiva.bankstatement.datasource.ReplicaStalenessGuard;
 import lt.daiva.bankstatement.dto.BalanceResponse;
+import lt.daiva.bankstatement.dto.CurrencyBalance;
+import lt.daiva.bankstatement.dto.ExportQuery;
 import lt.daiva.bankstatement.dto.ExportResult;
 import lt.daiva.bankstatement.dto.ImportResult;
+import lt.daiva.bankstatement.dto.JournalStatus;
+import lt.daiva.bankstatement.dto.RejectedRecord;
+import lt.daiva.bankstatement.dto.TolerantImportResult;
 import lt.daiva.bankstatement.exception.BankStatementException;
 import lt.daiva.bankstatement.exception.InvalidCsvRecordException;
+import lt.daiva.bankstatement.exception.JournalPendingException;
+import lt.daiva.bankstatement.export.OperationWriter;
+import lt.daiva.bankstatement.hotstore.HotOperationStore;
+import lt.daiva.bankstatement.journal.IngestJournal;
 import lt.daiva.bankstatement.model.BankOperation;
 import lt.daiva.bankstatement.repository.BankOperationRepository;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class BankStatementService {
 
     private final BankOperationRepository bankOperationRepository;
+    private final ReplicaStalenessGuard replicaStalenessGuard;
+    private final ObjectProvider<IngestJournal> ingestJournal;
+    private final ObjectProvider<ArchiveStore> archiveStore;
+    private final ObjectProvider<HotOperationStore> hotStore;
+    private final AccountSummaryService accountSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration journalAwaitTimeout;
     private static final List<String> REQUIRED_HEADERS = List.of(
             "accountNumber", "operationDateTime", "beneficiary", "comment", "amount", "currency"
     );
@@ -42,41 +78,139 @@ public class BankStatementService {
     private static final LocalTime START_OF_DAY = LocalTime.MIN;
     private static final LocalTime END_OF_DAY = LocalTime.MAX;
 
-    public BankStatementService(BankOperationRepository bankOperationRepository) {
+    public BankStatementService(BankOperationRepository bankOperationRepository,
+                                ReplicaStalenessGuard replicaStalenessGuard,
+                                ObjectProvider<IngestJournal> ingestJournal,
+                                ObjectProvider<ArchiveStore> archiveStore,
+                                ObjectProvider<HotOperationStore> hotStore,
+                                AccountSummaryService accountSummaryService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${bank-statement.journal.await-timeout:10s}") Duration journalAwaitTimeout) {
         this.bankOperationRepository = bankOperationRepository;
+        this.replicaStalenessGuard = replicaStalenessGuard;
+        this.ingestJournal = ingestJournal;
+        this.archiveStore = archiveStore;
+        this.hotStore = hotStore;
+        this.accountSummaryService = accountSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalAwaitTimeout = journalAwaitTimeout;
     }
 
     /**
      * Parses CSV file, validates required headers and values,
      * skips duplicate operations and persists valid records.
+     * With the ingest journal enabled, valid records are only appended to the journal
+     * and the result carries the journal sequence to wait for.
      *
      * @param file CSV file with bank operations
      * @return result containing number of imported and skipped records
      */
     public ImportResult importFromCsv(MultipartFile file) {
-        int imported = 0;
+        try {
+            return importFromCsv(file.getInputStream());
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to read uploaded file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Same as {@link #importFromCsv(MultipartFile)} for CSV content read from a stream,
+     * e.g. a single entry of a ZIP archive. The stream is closed afterwards.
+     *
+     * @param content CSV content with bank operations
+     * @return result containing number of imported and skipped records
+     */
+    public ImportResult importFromCsv(InputStream content) {
+        return importRecords(content, null, 0);
+    }
+
+    /**
+     * Tolerant variant of {@link #importFromCsv(MultipartFile)}: invalid records are
+     * collected with their line number and reason instead of aborting the import,
+     * so that only they need to be fixed and re-submitted.
+     *
+     * @param file        CSV file with bank operations
+     * @param errorBudget maximum number of rejected records; one more stops the import,
+     *                    keeping the rows stored before it
+     * @return import counts and the rejected records in file order
+     */
+    public TolerantImportResult importFromCsvTolerant(MultipartFile file, int errorBudget) {
+        if (errorBudget < 0) {
+            throw new BankStatementException("maxErrors must not be negative");
+        }
+        List<RejectedRecord> rejects = new ArrayList<>();
+        try {
+            ImportResult result = importRecords(file.getInputStream(), rejects, errorBudget);
+            return new TolerantImportResult(result, rejects, rejects.size() > errorBudget);
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to read uploaded file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes rejected records as CSV with the import header followed by lineNumber and error,
+     * so the file can be corrected and uploaded again as is.
+     */
+    public void writeRejectCsv(List<RejectedRecord> rejects, OutputStream out) {
+        var header = new ArrayList<>(REQUIRED_HEADERS);
+        header.add("lineNumber");
+        header.add("error");
+        try {
+            var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            var printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                    .setHeader(header.toArray(String[]::new))
+                    .build());
+            for (RejectedRecord reject : rejects) {
+                List<Object> values = new ArrayList<>(reject.values());
+                values.add(reject.lineNumber());
+                values.add(reject.reason());
+                printer.printRecord(values);
+            }
+            printer.flush();
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to write reject file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param rejects collects invalid records in tolerant mode; null aborts on the first one.
+     *                Once it holds more than {@code errorBudget} records the remaining
+     *                rows are not read.
+     */
+    private ImportResult importRecords(InputStream content, List<RejectedRecord> rejects, int errorBudget) {
         int skipped = 0;
+        IngestJournal journal = ingestJournal.getIfAvailable();
+        List<BankOperation> journaled = new ArrayList<>();
+        int imported = 0;
 
-        try (var reader = new InputStreamReader(file.getInputStream())) {
+        try (var reader = new InputStreamReader(content)) {
 
-            try (CSVParser parser = IMPORT_FORMAT.parse(reader)) {
-                validateHeaders(parser);
+            try (CSVParser parser = parseImport(reader)) {
 
                 for (CSVRecord record : parser) {
                     try {
                         BankOperation operation = toOperation(record);
-                        bankOperationRepository.save(operation);
-                        imported++;
-
-                    } catch (DataIntegrityViolationException e) {
-                        if (isDuplicateKeyViolation(e)) {
-                            skipped++;
+                        if (journal != null) {
+                            journaled.add(operation);
+                        } else if (saveIfAbsent(operation)) {
+                            imported++;
                         } else {
+                            skipped++;
+                        }
+                    } catch (InvalidCsvRecordException | IllegalArgumentException | DataIntegrityViolationException e) {
+                        if (rejects == null) {
                             throw e;
                         }
+                        reject(rejects, record, parser.getCurrentLineNumber(), e);
+                        if (rejects.size() > errorBudget) {
+                            break;
+                        }
                     }
                 }
 
+                if (journal != null) {
+                    return ImportResult.journaled(journaled.size(), journal.append(journaled));
+                }
                 return new ImportResult(imported, skipped);
             }
         } catch (IllegalArgumentException e) {
@@ -86,14 +220,48 @@ public class BankStatementService {
         }
     }
 
+    /**
+     * Blocks until the ingest journal has applied the given sequence, so that a following
+     * balance or export sees the import that returned it. No-op without a journal.
+     *
+     * @param journalSequence sequence returned by a journaled import, may be null
+     */
+    public void awaitJournal(Long journalSequence) {
+        IngestJournal journal = ingestJournal.getIfAvailable();
+        if (journal == null || journalSequence == null) {
+            return;
+        }
+        try {
+            if (!journal.awaitApplied(journalSequence, journalAwaitTimeout)) {
+                throw new JournalPendingException(journalSequence);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JournalPendingException(journalSequence);
+        }
+    }
+
+    /**
+     * @return appended and applied journal watermarks, all zero without a journal
+     */
+    public JournalStatus journalStatus() {
+        IngestJournal journal = ingestJournal.getIfAvailable();
+        return journal == null ? new JournalStatus(0, 0, 0) : journal.status();
+    }
+
     /**
      * Calculates account balance for a given date range.
+     * Answered from the hot store when the range starts inside its horizon, otherwise
+     * runs on the replica unless the account was imported into within the staleness window.
+     * Unknown accounts are only looked up, and rejected if configured, when the database
+     * finds no balance; the hot store answers them with an empty balance list.
      *
      * @param accountNumber account identifier
      * @param from          optional start date (inclusive)
      * @param to            optional end date (inclusive)
      * @return balance grouped by currency
      */
+    @Transactional(readOnly = true)
     public BalanceResponse calculateBalance(String accountNumber,
                                             LocalDate from,
                                             LocalDate to) {
@@ -102,7 +270,21 @@ public class BankStatementService {
         LocalDateTime fromDatetime = (from == null) ? null : from.atTime(START_OF_DAY);
         LocalDateTime toDatetime = (to == null) ? null : to.atTime(END_OF_DAY);
 
-        var balances = bankOperationRepository.calculateBalancesByCurrency(accountNumber, fromDatetime, toDatetime);
+        HotOperationStore hot = hotStore.getIfAvailable();
+        if (hot != null && hot.covers(fromDatetime)) {
+            return new BalanceResponse(accountNumber, hot.balances(accountNumber, fromDatetime, toDatetime));
+        }
+
+        // the first query binds the connection, so the existence check runs on the same route
+        var balances = ReadWriteRoutingDataSource.onPrimaryIf(
+                replicaStalenessGuard.requiresPrimary(accountNumber),
+                () -> {
+                    List<CurrencyBalance> loaded = loadBalances(accountNumber, fromDatetime, toDatetime);
+                    if (loaded.isEmpty()) {
+                        accountSummaryService.requireKnown(accountNumber);
+                    }
+                    return loaded;
+                });
 
         return new BalanceResponse(accountNumber, balances);
     }
@@ -111,31 +293,164 @@ public class BankStatementService {
      * Exports bank operations for one or several accounts.
      * Date filters are provided as LocalDate and converted internally
      * to day boundaries (start/end of day).
+     * Answered from the hot store when the range starts inside its horizon, otherwise
+     * runs on the replica unless any account was imported into within the staleness window.
      *
      * @param accounts list of account numbers to export
      * @param from     optional start date (inclusive)
      * @param to       optional end date (inclusive)
      * @return CSV file content and metadata
      */
+    @Transactional(readOnly = true)
     public ExportResult exportToCsv(List<String> accounts, LocalDate from, LocalDate to) {
         validateDateRange(from, to);
 
         LocalDateTime fromDatetime = (from == null) ? null : from.atTime(START_OF_DAY);
         LocalDateTime toDatetime = (to == null) ? null : to.atTime(END_OF_DAY);
 
-        var operations = bankOperationRepository.findForExport(accounts, fromDatetime, toDatetime);
+        HotOperationStore hot = hotStore.getIfAvailable();
+        var operations = (hot != null && hot.covers(fromDatetime))
+                ? hot.operations(accounts, fromDatetime, toDatetime)
+                : ReadWriteRoutingDataSource.onPrimaryIf(
+                        replicaStalenessGuard.requiresPrimary(accounts),
+                        () -> loadOperations(accounts, fromDatetime, toDatetime));
         var csv = generateCsv(operations);
 
         return new ExportResult(csv, operations.size());
     }
 
-    private BankOperation toOperation(CSVRecord record) {
+    /**
+     * Validates export filters before a streamed export starts writing its response.
+     */
+    public ExportQuery exportQuery(List<String> accounts, LocalDate from, LocalDate to) {
+        validateDateRange(from, to);
+        return new ExportQuery(
+                accounts,
+                (from == null) ? null : from.atTime(START_OF_DAY),
+                (to == null) ? null : to.atTime(END_OF_DAY));
+    }
+
+    /**
+     * Writes the operations of the query to {@code writer} one by one, in findForExport
+     * order, streaming them from the database instead of loading them first. Same hot
+     * store, archive and replica handling as {@link #exportToCsv}.
+     *
+     * @return number of operations written
+     */
+    @Transactional(readOnly = true)
+    public long streamExport(ExportQuery query, OperationWriter writer) {
+        try {
+            HotOperationStore hot = hotStore.getIfAvailable();
+            long count = (hot != null && hot.covers(query.from()))
+                    ? writeAll(hot.iterator(query.accounts(), query.from(), query.to()), writer)
+                    : ReadWriteRoutingDataSource.onPrimaryIf(
+                            replicaStalenessGuard.requiresPrimary(query.accounts()),
+                            () -> streamOperations(query, writer));
+            writer.finish(count);
+            return count;
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to export: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            throw new BankStatementException("Failed to export: " + e.getCause().getMessage());
+        }
+    }
+
+    private long streamOperations(ExportQuery query, OperationWriter writer) {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        if (archive == null) {
+            try (Stream<BankOperation> live = bankOperationRepository.streamForExport(
+                    query.accounts(), query.from(), query.to())) {
+                return writeAll(live.iterator(), writer);
+            }
+        }
+        long count = 0;
+        for (String account : query.accounts().stream().distinct().sorted().toList()) {
+            // both sides are opened under the snapshot, the client is written to after it
+            try (Stream<BankOperation> operations = archive.withSnapshot(() -> OperationIterators.mergeByTime(
+                    archive.iterator(account, query.from(), query.to()),
+                    bankOperationRepository.streamForExport(List.of(account), query.from(), query.to())))) {
+                count += writeAll(operations.iterator(), writer);
+            }
+        }
+        return count;
+    }
+
+    private static long writeAll(Iterator<BankOperation> operations, OperationWriter writer) {
+        long count = 0;
+        try {
+            while (operations.hasNext()) {
+                writer.write(operations.next());
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * Sums live and, when the archive is enabled, archived operations per currency.
+     */
+    private List<CurrencyBalance> loadBalances(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        if (archive == null) {
+            return bankOperationRepository.calculateBalancesByCurrency(accountNumber, from, to);
+        }
+        return archive.withSnapshot(() -> {
+            Map<String, BigDecimal> totals = new LinkedHashMap<>();
+            for (CurrencyBalance balance : bankOperationRepository.calculateBalancesByCurrency(accountNumber, from, to)) {
+                totals.put(balance.currency(), balance.amount());
+            }
+            archive.balances(accountNumber, from, to)
+                    .forEach((currency, amount) -> totals.merge(currency, amount, BigDecimal::add));
+            return totals.entrySet().stream()
+                    .map(entry -> new CurrencyBalance(entry.getKey(), entry.getValue()))
+                    .toList();
+        });
+    }
+
+    /**
+     * Loads live and, when the archive is enabled, archived operations
+     * in findForExport order: by account, then by operation time.
+     */
+    private List<BankOperation> loadOperations(List<String> accounts, LocalDateTime from, LocalDateTime to) {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        if (archive == null) {
+            return bankOperationRepository.findForExport(accounts, from, to);
+        }
+        return archive.withSnapshot(() -> {
+            List<BankOperation> operations = new ArrayList<>();
+            for (String account : accounts.stream().distinct().toList()) {
+                operations.addAll(archive.read(account, from, to));
+            }
+            operations.addAll(bankOperationRepository.findForExport(accounts, from, to));
+            operations.sort(Comparator.comparing(BankOperation::getAccountNumber)
+                    .thenComparing(BankOperation::getOperationTime));
+            return operations;
+        });
+    }
+
+    /**
+     * Opens CSV content in the import format and validates its header.
+     */
+    CSVParser parseImport(Reader reader) throws IOException {
+        CSVParser parser = IMPORT_FORMAT.parse(reader);
+        try {
+            validateHeaders(parser);
+            return parser;
+        } catch (RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    BankOperation toOperation(CSVRecord record) {
         try {
             var operationComment = record.get("comment");
             if (operationComment == null) {
                 operationComment = "";
             }
-            return new BankOperation(
+            var operation = new BankOperation(
                     record.get("accountNumber"),
                     LocalDateTime.parse(record.get("operationDateTime")),
                     record.get("beneficiary"),
@@ -143,6 +458,8 @@ public class BankStatementService {
                     new BigDecimal(record.get("amount")),
                     record.get("currency").trim().toUpperCase()
             );
+            checkColumnLimits(operation);
+            return operation;
 
         } catch (DateTimeParseException e) {
             throw new InvalidCsvRecordException(
@@ -155,6 +472,93 @@ public class BankStatementService {
         }
     }
 
+    /**
+     * Rejects values bank_operation would refuse, so that a journaled operation,
+     * acknowledged before it is stored, cannot fail on insert.
+     */
+    private static void checkColumnLimits(BankOperation operation) {
+        checkLength("accountNumber", operation.getAccountNumber(), BankOperation.ACCOUNT_NUMBER_LENGTH);
+        checkLength("beneficiary", operation.getBeneficiary(), BankOperation.BENEFICIARY_LENGTH);
+        checkLength("comment", operation.getOperationComment(), BankOperation.COMMENT_LENGTH);
+        checkLength("currency", operation.getCurrency(), BankOperation.CURRENCY_LENGTH);
+        BigDecimal amount = operation.getAmount().setScale(BankOperation.AMOUNT_SCALE, RoundingMode.HALF_UP);
+        if (amount.precision() > BankOperation.MAX_AMOUNT_DIGITS) {
+            throw new InvalidCsvRecordException("Invalid amount: " + operation.getAmount() + " is out of range");
+        }
+    }
+
+    private static void checkLength(String column, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new InvalidCsvRecordException(
+                    column + " is longer than " + maxLength + " characters: " + value.length());
+        }
+    }
+
+    /**
+     * Persists a single operation and adds it to the account summary in its own transaction.
+     *
+     * @return false if an identical operation is already stored or archived
+     */
+    boolean saveIfAbsent(BankOperation operation) {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        if (archive == null) {
+            return insertIfAbsent(operation);
+        }
+        return archive.withSnapshot(() -> !archive.contains(operation) && insertIfAbsent(operation));
+    }
+
+    /**
+     * Runs an insert so that the archive job cannot move a month in between an
+     * {@link #isArchived} check and the commit.
+     */
+    void withArchiveSnapshot(Runnable insert) {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        if (archive == null) {
+            insert.run();
+            return;
+        }
+        archive.withSnapshot(() -> {
+            insert.run();
+            return null;
+        });
+    }
+
+    /**
+     * Archived rows are deleted from bank_operation, so uq_bank_operation_unique
+     * no longer rejects them.
+     */
+    boolean isArchived(BankOperation operation) {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        return archive != null && archive.contains(operation);
+    }
+
+    private boolean insertIfAbsent(BankOperation operation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bankOperationRepository.save(operation);
+                accountSummaryService.record(List.of(operation));
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateKeyViolation(e)) {
+                return false;
+            }
+            throw e;
+        }
+        recordStored(operation);
+        return true;
+    }
+
+    /**
+     * Notifies the staleness guard and the hot store about an operation stored in the database.
+     */
+    void recordStored(BankOperation operation) {
+        replicaStalenessGuard.recordWrite(operation.getAccountNumber());
+        HotOperationStore hot = hotStore.getIfAvailable();
+        if (hot != null) {
+            hot.add(operation);
+        }
+    }
+
     private byte[] generateCsv(List<BankOperation> operations) {
         try (var out = new ByteArrayOutputStream();
              var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
@@ -181,6 +585,17 @@ public class BankStatementService {
         }
     }
 
+    private static void reject(List<RejectedRecord> rejects, CSVRecord record, long lineNumber,
+                               RuntimeException cause) {
+        List<String> values = REQUIRED_HEADERS.stream()
+                .map(header -> record.isSet(header) ? record.get(header) : "")
+                .toList();
+        String reason = cause instanceof DataIntegrityViolationException e
+                ? "Rejected by database: " + e.getMostSpecificCause().getMessage()
+                : cause.getMessage();
+        rejects.add(new RejectedRecord(lineNumber, values, reason));
+    }
+
     /**
      * Returns operations for export filtered by accounts and date range.
      * Used by CSV export and balance calculation.
@@ -0,0 +1,137 @@
+package lt.daiva.bankstatement.service;
+
+import lt.daiva.bankstatement.journal.IngestJournal;
+import lt.daiva.bankstatement.journal.JournalEntry;
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background thread draining the ingest journal into bank_operation.
+ * Each batch is inserted in one transaction; a batch violating a constraint
+ * is retried row by row so that only the duplicates are skipped. A row the
+ * database rejects for another constraint is dead-lettered, as retrying it
+ * would block every later entry. Other failures, e.g. an unreachable database,
+ * are retried.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank-statement.journal", name = "enabled", havingValue = "true")
+public class JournalApplier implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalApplier.class);
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final IngestJournal ingestJournal;
+    private final BankOperationRepository bankOperationRepository;
+    private final BankStatementService bankStatementService;
+    private final AccountSummaryService accountSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private volatile Thread worker;
+
+    public JournalApplier(IngestJournal ingestJournal,
+                          BankOperationRepository bankOperationRepository,
+                          BankStatementService bankStatementService,
+                          AccountSummaryService accountSummaryService,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${bank-statement.journal.apply-batch-size:1000}") int batchSize) {
+        this.ingestJournal = ingestJournal;
+        this.bankOperationRepository = bankOperationRepository;
+        this.bankStatementService = bankStatementService;
+        this.accountSummaryService = accountSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void start() {
+        Thread thread = new Thread(this::run, "journal-applier");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread current = worker;
+        worker = null;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(RETRY_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null;
+    }
+
+    private void run() {
+        try {
+            while (worker != null) {
+                List<JournalEntry> batch = ingestJournal.poll(batchSize, POLL_TIMEOUT);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                while (!apply(batch)) {
+                    Thread.sleep(RETRY_DELAY.toMillis());
+                }
+                ingestJournal.markApplied(batch.get(batch.size() - 1).sequence());
+            }
+        } catch (InterruptedException e) {
+            // stopping; unapplied entries are replayed from the journal on next start
+        }
+    }
+
+    private boolean apply(List<JournalEntry> batch) {
+        try {
+            try {
+                List<BankOperation> operations = new ArrayList<>();
+                bankStatementService.withArchiveSnapshot(() -> {
+                    batch.stream()
+                            .map(JournalEntry::toOperation)
+                            .filter(operation -> !bankStatementService.isArchived(operation))
+                            .forEach(operations::add);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        bankOperationRepository.saveAll(operations);
+                        accountSummaryService.record(operations);
+                    });
+                });
+                operations.forEach(bankStatementService::recordStored);
+            } catch (DataIntegrityViolationException e) {
+                for (JournalEntry entry : batch) {
+                    try {
+                        bankStatementService.saveIfAbsent(entry.toOperation());
+                    } catch (DataIntegrityViolationException rejected) {
+                        String reason = String.valueOf(rejected.getMostSpecificCause().getMessage());
+                        log.error("Journal sequence {} rejected by database, moved to dead letters: {}",
+                                entry.sequence(), reason);
+                        ingestJournal.deadLetter(entry, reason);
+                    }
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to apply journal batch ending at sequence {}, retrying",
+                    batch.get(batch.size() - 1).sequence(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package lt.daiva.bankstatement.service;
+
+import lt.daiva.bankstatement.model.BankOperation;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator helpers for merging operation streams that are each ordered by time.
+ */
+final class OperationIterators {
+
+    private OperationIterators() {
+    }
+
+    /**
+     * Merges two iterators of one account's operations, each ordered by operation time.
+     */
+    static Iterator<BankOperation> mergeByTime(Iterator<BankOperation> first, Iterator<BankOperation> second) {
+        var left = new Peeking<>(first);
+        var right = new Peeking<>(second);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return left.hasNext() || right.hasNext();
+            }
+
+            @Override
+            public BankOperation next() {
+                if (!right.hasNext()) {
+                    return left.next();
+                }
+                if (!left.hasNext()) {
+                    return right.next();
+                }
+                return left.peek().getOperationTime().isAfter(right.peek().getOperationTime())
+                        ? right.next()
+                        : left.next();
+            }
+        };
+    }
+
+    /**
+     * Merges archived operations with a live query of the same account. Closing the
+     * result closes the live query.
+     */
+    static Stream<BankOperation> mergeByTime(Iterator<BankOperation> archived, Stream<BankOperation> live) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        mergeByTime(archived, live.iterator()), Spliterator.ORDERED), false)
+                .onClose(live::close);
+    }
+
+    static final class Peeking<T> implements Iterator<T> {
+
+        private final Iterator<T> delegate;
+        private T head;
+
+        Peeking(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        T peek() {
+            if (head == null) {
+                head = delegate.next();
+            }
+            return head;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return head != null || delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (head == null) {
+                return delegate.next();
+            }
+            T next = head;
+            head = null;
+            return next;
+        }
+    }
+}
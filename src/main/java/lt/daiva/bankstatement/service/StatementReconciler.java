@@ -0,0 +1,314 @@
+package lt.daiva.bankstatement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lt.daiva.bankstatement.archive.ArchiveStore;
+import lt.daiva.bankstatement.datasource.ReadWriteRoutingDataSource;
+import lt.daiva.bankstatement.datasource.ReplicaStalenessGuard;
+import lt.daiva.bankstatement.dto.ReconcileDiffEntry;
+import lt.daiva.bankstatement.dto.ReconcileDiffEntry.Status;
+import lt.daiva.bankstatement.dto.ReconcileSummary;
+import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import lt.daiva.bankstatement.service.OperationIterators.Peeking;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static lt.daiva.bankstatement.service.OperationIterators.mergeByTime;
+
+/**
+ * Compares an uploaded statement with the stored operations of its accounts without
+ * writing anything.
+ * <p>
+ * Both sides are read account by account in operation time order and merged one
+ * window at a time, a window being all rows of one account at one operation time,
+ * so memory stays bounded by the largest window. Stored rows are streamed from the
+ * database; a file that is not ordered by account and time is sorted in memory first.
+ */
+@Service
+public class StatementReconciler {
+
+    private static final Comparator<BankOperation> FILE_ORDER = Comparator
+            .comparing(BankOperation::getAccountNumber)
+            .thenComparing(BankOperation::getOperationTime);
+
+    private final BankStatementService bankStatementService;
+    private final BankOperationRepository bankOperationRepository;
+    private final ReplicaStalenessGuard replicaStalenessGuard;
+    private final ObjectProvider<ArchiveStore> archiveStore;
+    private final ObjectMapper objectMapper;
+
+    public StatementReconciler(BankStatementService bankStatementService,
+                               BankOperationRepository bankOperationRepository,
+                               ReplicaStalenessGuard replicaStalenessGuard,
+                               ObjectProvider<ArchiveStore> archiveStore,
+                               ObjectMapper objectMapper) {
+        this.bankStatementService = bankStatementService;
+        this.bankOperationRepository = bankOperationRepository;
+        this.replicaStalenessGuard = replicaStalenessGuard;
+        this.archiveStore = archiveStore;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Time span of one account's rows in the uploaded file; stored rows are compared within it.
+     */
+    public record Span(LocalDateTime from, LocalDateTime to) {}
+
+    /**
+     * @param accounts accounts of the file in reconciliation order with their spans
+     * @param sorted   whether the file is already ordered by account and operation time
+     */
+    public record Scope(Map<String, Span> accounts, boolean sorted) {}
+
+    /**
+     * Validates every row of the file and determines what to compare against.
+     * Runs before anything is streamed, so an invalid file is still answered with 400.
+     */
+    public Scope scan(MultipartFile file) {
+        Map<String, Span> accounts = new TreeMap<>();
+        boolean sorted = true;
+        BankOperation previous = null;
+
+        try (var rows = new FileRows(file)) {
+            while (rows.hasNext()) {
+                BankOperation operation = rows.next().operation();
+                LocalDateTime time = operation.getOperationTime();
+                accounts.merge(operation.getAccountNumber(), new Span(time, time), (span, row) -> new Span(
+                        span.from().isAfter(time) ? time : span.from(),
+                        span.to().isBefore(time) ? time : span.to()));
+                if (previous != null && FILE_ORDER.compare(previous, operation) > 0) {
+                    sorted = false;
+                }
+                previous = operation;
+            }
+        }
+        if (accounts.isEmpty()) {
+            throw new BankStatementException("CSV file contains no operations");
+        }
+        return new Scope(accounts, sorted);
+    }
+
+    /**
+     * Writes a JSON document with the scope, the differing rows and a summary to
+     * {@code out}. Runs on the replica unless any account was imported into within
+     * the staleness window.
+     *
+     * @return the counts also written as the document's summary
+     */
+    @Transactional(readOnly = true)
+    public ReconcileSummary reconcile(MultipartFile file, Scope scope, OutputStream out) {
+        ArchiveStore archive = archiveStore.getIfAvailable();
+        return ReadWriteRoutingDataSource.onPrimaryIf(
+                replicaStalenessGuard.requiresPrimary(scope.accounts().keySet()),
+                () -> write(file, scope, archive, out));
+    }
+
+    private ReconcileSummary write(MultipartFile file, Scope scope, ArchiveStore archive, OutputStream out) {
+        var counts = new Counts();
+        try (var rows = new FileRows(file);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeObjectField("accounts", scope.accounts());
+            json.writeArrayFieldStart("diff");
+
+            Peeking<FileRow> uploaded = new Peeking<>(scope.sorted() ? rows : sortedInMemory(rows));
+            for (Map.Entry<String, Span> account : scope.accounts().entrySet()) {
+                String accountNumber = account.getKey();
+                Span span = account.getValue();
+                try (Stream<BankOperation> stored = stored(archive, accountNumber, span)) {
+                    compareAccount(accountNumber, uploaded, new Peeking<>(stored.iterator()), counts, json);
+                }
+            }
+
+            ReconcileSummary summary = counts.summary();
+            json.writeEndArray();
+            json.writeObjectField("summary", summary);
+            json.writeEndObject();
+            json.flush();
+            return summary;
+
+        } catch (IOException e) {
+            throw new BankStatementException("Failed to write reconciliation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Live and archived operations of the account within the span, ordered by time. Both
+     * sides are opened under one archive snapshot, which is released before any row is read.
+     */
+    private Stream<BankOperation> stored(ArchiveStore archive, String accountNumber, Span span) {
+        if (archive == null) {
+            return bankOperationRepository.streamForExport(List.of(accountNumber), span.from(), span.to());
+        }
+        return archive.withSnapshot(() -> mergeByTime(
+                archive.iterator(accountNumber, span.from(), span.to()),
+                bankOperationRepository.streamForExport(List.of(accountNumber), span.from(), span.to())));
+    }
+
+    private void compareAccount(String accountNumber, Peeking<FileRow> uploaded, Peeking<BankOperation> stored,
+                                Counts counts, JsonGenerator json) throws IOException {
+        while (hasRowOf(uploaded, accountNumber) || stored.hasNext()) {
+            LocalDateTime time = earliest(
+                    hasRowOf(uploaded, accountNumber) ? uploaded.peek().operation().getOperationTime() : null,
+                    stored.hasNext() ? stored.peek().getOperationTime() : null);
+
+            Map<List<Object>, BankOperation> storedWindow = new LinkedHashMap<>();
+            while (stored.hasNext() && stored.peek().getOperationTime().equals(time)) {
+                BankOperation operation = stored.next();
+                storedWindow.put(windowKey(operation), operation);
+            }
+
+            Set<List<Object>> seenInFile = new HashSet<>();
+            while (hasRowOf(uploaded, accountNumber)
+                    && uploaded.peek().operation().getOperationTime().equals(time)) {
+                FileRow row = uploaded.next();
+                List<Object> key = windowKey(row.operation());
+                if (!seenInFile.add(key)) {
+                    counts.duplicatesInFile++;
+                    json.writeObject(entry(Status.DUPLICATE, row.lineNumber(), row.operation()));
+                } else if (storedWindow.remove(key) != null) {
+                    counts.matched++;
+                } else {
+                    counts.newInFile++;
+                    json.writeObject(entry(Status.NEW, row.lineNumber(), row.operation()));
+                }
+            }
+
+            for (BankOperation missing : storedWindow.values()) {
+                counts.missingFromFile++;
+                json.writeObject(entry(Status.MISSING, null, missing));
+            }
+        }
+    }
+
+    private static boolean hasRowOf(Peeking<FileRow> uploaded, String accountNumber) {
+        return uploaded.hasNext() && uploaded.peek().operation().getAccountNumber().equals(accountNumber);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isBefore(second) ? first : second;
+    }
+
+    private static Iterator<FileRow> sortedInMemory(Iterator<FileRow> rows) {
+        List<FileRow> all = new ArrayList<>();
+        rows.forEachRemaining(all::add);
+        all.sort(Comparator.comparing(FileRow::operation, FILE_ORDER));
+        return all.iterator();
+    }
+
+    /**
+     * Unique-key columns other than account and operation time, which are equal within a window.
+     */
+    private static List<Object> windowKey(BankOperation operation) {
+        return List.of(
+                operation.getBeneficiary(),
+                operation.getAmount().stripTrailingZeros(),
+                operation.getCurrency(),
+                Objects.toString(operation.getOperationComment(), "")
+        );
+    }
+
+    private static ReconcileDiffEntry entry(Status status, Long lineNumber, BankOperation operation) {
+        return new ReconcileDiffEntry(
+                status,
+                lineNumber,
+                operation.getAccountNumber(),
+                operation.getOperationTime(),
+                operation.getBeneficiary(),
+                operation.getOperationComment(),
+                operation.getAmount(),
+                operation.getCurrency()
+        );
+    }
+
+    private record FileRow(long lineNumber, BankOperation operation) {}
+
+    private static final class Counts {
+        long matched;
+        long newInFile;
+        long missingFromFile;
+        long duplicatesInFile;
+
+        ReconcileSummary summary() {
+            return new ReconcileSummary(matched, newInFile, missingFromFile, duplicatesInFile);
+        }
+    }
+
+    /**
+     * Rows of the uploaded file, parsed and validated like an import.
+     */
+    private final class FileRows implements Iterator<FileRow>, AutoCloseable {
+
+        private final CSVParser parser;
+        private final Iterator<CSVRecord> records;
+
+        FileRows(MultipartFile file) {
+            try {
+                this.parser = bankStatementService.parseImport(
+                        new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+                this.records = parser.iterator();
+            } catch (IllegalArgumentException e) {
+                throw new BankStatementException("Invalid CSV format: missing required header or invalid file content");
+            } catch (IOException e) {
+                throw new BankStatementException("Failed to read uploaded file: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return records.hasNext();
+            } catch (UncheckedIOException | IllegalStateException e) {
+                throw new BankStatementException("Invalid CSV format: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public FileRow next() {
+            CSVRecord record = records.next();
+            try {
+                return new FileRow(parser.getCurrentLineNumber(), bankStatementService.toOperation(record));
+            } catch (IllegalArgumentException e) {
+                throw new BankStatementException(
+                        "Invalid CSV format at line " + parser.getCurrentLineNumber() + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
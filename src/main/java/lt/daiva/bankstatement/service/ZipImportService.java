@@ -0,0 +1,193 @@
+package lt.daiva.bankstatement.service;
+
+import jakarta.annotation.PreDestroy;
+import lt.daiva.bankstatement.dto.FileImportResult;
+import lt.daiva.bankstatement.dto.ImportResult;
+import lt.daiva.bankstatement.dto.ZipImportResult;
+import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.exception.InvalidCsvRecordException;
+import lt.daiva.bankstatement.exception.JournalFullException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports every CSV entry of a ZIP archive. Entries are streamed from the upload
+ * into memory, one at a time, and imported concurrently on a bounded pool; at most
+ * twice the pool size of entries is held in memory at once.
+ */
+@Service
+public class ZipImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ZipImportService.class);
+    private static final String MAC_METADATA_PREFIX = "__MACOSX/";
+
+    private final BankStatementService bankStatementService;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final long maxEntrySize;
+
+    public ZipImportService(BankStatementService bankStatementService,
+                            @Value("${bank-statement.import.zip-parallelism:4}") int parallelism,
+                            @Value("${bank-statement.import.zip-max-entry-size:50MB}") DataSize maxEntrySize) {
+        this.bankStatementService = bankStatementService;
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.inFlight = new Semaphore(parallelism * 2);
+
+        var threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "zip-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Imports each CSV entry of the archive with the same header validation as a single
+     * CSV upload. An entry that is invalid, oversized or fails to import for any other
+     * reason is reported in its file result and does not stop the other entries. If the
+     * archive itself turns out to be broken after some entries were read, those are
+     * still imported and the break is reported as a failed file result.
+     *
+     * @param file ZIP archive with CSV files
+     * @return per-file results in archive order and their total
+     */
+    public ZipImportResult importFromZip(MultipartFile file) {
+        List<Future<FileImportResult>> futures = new ArrayList<>();
+        String lastEntry = null;
+
+        try (var zip = new ZipInputStream(file.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                lastEntry = name;
+                if (entry.isDirectory() || name.startsWith(MAC_METADATA_PREFIX)) {
+                    continue;
+                }
+                if (!name.toLowerCase().endsWith(".csv")) {
+                    futures.add(CompletableFuture.completedFuture(
+                            FileImportResult.failed(name, "Only CSV files are supported")));
+                    continue;
+                }
+
+                byte[] content = readEntry(zip);
+                if (content == null) {
+                    futures.add(CompletableFuture.completedFuture(
+                            FileImportResult.failed(name, "ZIP entry exceeds " + maxEntrySize + " bytes")));
+                    continue;
+                }
+                inFlight.acquire();
+                try {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            return importEntry(name, new ByteArrayInputStream(content));
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            String error = (e instanceof ZipException ? "Invalid ZIP archive: " : "Failed to read uploaded file: ")
+                    + e.getMessage();
+            if (futures.isEmpty()) {
+                throw new BankStatementException(error);
+            }
+            // entries read so far are imported anyway, so report them instead of failing the request
+            futures.add(CompletableFuture.completedFuture(FileImportResult.failed(
+                    Objects.toString(file.getOriginalFilename(), "archive"),
+                    error + "; reading stopped at " + lastEntry)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BankStatementException("ZIP import interrupted");
+        }
+
+        if (futures.isEmpty()) {
+            throw new BankStatementException("ZIP archive contains no CSV files");
+        }
+        return collect(futures);
+    }
+
+    private FileImportResult importEntry(String name, InputStream content) {
+        try {
+            return FileImportResult.imported(name, bankStatementService.importFromCsv(content));
+        } catch (BankStatementException | InvalidCsvRecordException | JournalFullException e) {
+            return FileImportResult.failed(name, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Import of ZIP entry {} failed", name, e);
+            return FileImportResult.failed(name, "Import failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return entry content, or null if it exceeds the maximum entry size; the rest of
+     * the entry is skipped by the next {@link ZipInputStream#getNextEntry()}
+     */
+    private byte[] readEntry(ZipInputStream zip) throws IOException {
+        var out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = zip.read(chunk)) != -1) {
+            if (out.size() + read > maxEntrySize) {
+                return null;
+            }
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static ZipImportResult collect(List<Future<FileImportResult>> futures) {
+        List<FileImportResult> files = new ArrayList<>(futures.size());
+        ImportResult total = null;
+
+        for (Future<FileImportResult> future : futures) {
+            FileImportResult file;
+            try {
+                file = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BankStatementException("ZIP import interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new BankStatementException("ZIP import failed: " + e.getCause().getMessage(), e.getCause());
+            }
+            files.add(file);
+
+            if (file.result() != null) {
+                total = total == null ? file.result() : total.plus(file.result());
+            }
+        }
+        return new ZipImportResult(files, total == null ? new ImportResult(0, 0) : total);
+    }
+}
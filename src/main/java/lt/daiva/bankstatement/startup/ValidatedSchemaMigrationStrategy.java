@@ -0,0 +1,61 @@
+package lt.daiva.bankstatement.startup;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Skips Flyway when the newest successful entry of the schema history is already
+ * {@code bank-statement.startup.schema-version}, so a restarted instance does not scan
+ * the classpath for migrations and validate them. An empty database, a failed migration
+ * or any other version is migrated as usual.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank-statement.startup", name = "skip-validated-schema", havingValue = "true")
+public class ValidatedSchemaMigrationStrategy implements FlywayMigrationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidatedSchemaMigrationStrategy.class);
+
+    private final String schemaVersion;
+
+    public ValidatedSchemaMigrationStrategy(@Value("${bank-statement.startup.schema-version}") String schemaVersion) {
+        this.schemaVersion = schemaVersion;
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        if (schemaVersion.equals(currentVersion(flyway))) {
+            log.info("Schema is at version {}, skipping Flyway migration", schemaVersion);
+            return;
+        }
+        flyway.migrate();
+    }
+
+    /**
+     * @return version of the last applied migration, or null if it failed or there is no history yet
+     */
+    private static String currentVersion(Flyway flyway) {
+        var configuration = flyway.getConfiguration();
+        String table = '"' + configuration.getTable() + '"';
+        if (configuration.getDefaultSchema() != null) {
+            table = '"' + configuration.getDefaultSchema() + "\"." + table;
+        }
+        try {
+            List<String> versions = new JdbcTemplate(configuration.getDataSource()).query(
+                    "select \"version\", \"success\" from " + table
+                            + " where \"version\" is not null order by \"installed_rank\" desc limit 1",
+                    (row, rowNum) -> row.getBoolean("success") ? row.getString("version") : null);
+            return versions.isEmpty() ? null : versions.get(0);
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+CREATE TABLE account_summary (
+  account_number varchar(34) not null,
+  currency varchar(3) not null,
+  operation_count bigint not null,
+  first_operation_time timestamp not null,
+  last_operation_time timestamp not null,
+  credit_total decimal(19, 2) not null,
+  debit_total decimal(19, 2) not null,
+  primary key (account_number, currency)
+);
+
+insert into account_summary (account_number, currency, operation_count,
+                             first_operation_time, last_operation_time, credit_total, debit_total)
+select account_number,
+       currency,
+       count(*),
+       min(operation_time),
+       max(operation_time),
+       coalesce(sum(case when amount > 0 then amount end), 0),
+       coalesce(sum(case when amount < 0 then -amount end), 0)
+from bank_operation
+group by account_number, currency;
@@ -0,0 +1,129 @@
+package lt.daiva.bankstatement.archive;
+
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import lt.daiva.bankstatement.service.BankStatementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive-test;MODE=PostgreSQL",
+        "bank-statement.archive.enabled=true",
+        "bank-statement.archive.directory=${java.io.tmpdir}/bank-statement-archive-test-${random.uuid}"
+})
+class ArchiveJobTest {
+
+    @Autowired
+    private ArchiveJob archiveJob;
+
+    @Autowired
+    private BankStatementService service;
+
+    @MockitoSpyBean
+    private BankOperationRepository repository;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Test
+    void shouldServeSameBalanceAndExport_afterArchivingOldMonths() {
+        String csv = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-ARCHIVE-1,2025-01-01T09:15:00,Employer,January salary,1500.00,EUR
+                LT-ARCHIVE-1,2025-01-03T18:40:00,Maxima,Groceries,-85.32,EUR
+                LT-ARCHIVE-1,2025-02-05T12:10:00,Upwork,Freelance payment,200.00,USD
+                LT-ARCHIVE-1,2025-03-06T14:30:00,Amazon,Online shopping,-50.00,EUR
+                """;
+        service.importFromCsv(new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes()));
+
+        var balanceBefore = service.calculateBalance("LT-ARCHIVE-1", null, null);
+        var exportBefore = service.exportToCsv(List.of("LT-ARCHIVE-1"), null, null);
+
+        int archived = archiveJob.archiveBefore(YearMonth.of(2025, 3));
+
+        assertEquals(3, archived);
+        assertEquals(1, repository.findForExport(List.of("LT-ARCHIVE-1"), null, null).size());
+
+        var balanceAfter = service.calculateBalance("LT-ARCHIVE-1", null, null);
+        var exportAfter = service.exportToCsv(List.of("LT-ARCHIVE-1"), null, null);
+        var partial = service.calculateBalance("LT-ARCHIVE-1",
+                LocalDate.parse("2025-01-02"), LocalDate.parse("2025-03-31"));
+
+        assertEquals(balanceBefore.balances().size(), balanceAfter.balances().size());
+        for (var balance : balanceBefore.balances()) {
+            var after = balanceAfter.balances().stream()
+                    .filter(b -> b.currency().equals(balance.currency()))
+                    .findFirst().orElseThrow();
+            assertEquals(0, balance.amount().compareTo(after.amount()));
+        }
+        assertEquals(new String(exportBefore.csv(), StandardCharsets.UTF_8),
+                new String(exportAfter.csv(), StandardCharsets.UTF_8));
+        assertEquals(0, partial.balances().stream()
+                .filter(b -> b.currency().equals("EUR"))
+                .findFirst().orElseThrow().amount().compareTo(new BigDecimal("-135.32")));
+    }
+
+    @Test
+    void shouldSkipReimportedOperations_ofArchivedMonths() {
+        String csv = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-ARCHIVE-2,2025-01-01T09:15:00,Employer,January salary,1500.00,EUR
+                LT-ARCHIVE-2,2025-01-03T18:40:00,Maxima,Groceries,-85.32,EUR
+                """;
+        service.importFromCsv(new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes()));
+        archiveJob.archiveBefore(YearMonth.of(2025, 3));
+
+        String again = csv + "LT-ARCHIVE-2,2025-01-04T10:00:00,Rimi,Groceries,-10.00,EUR\n";
+        var result = service.importFromCsv(new MockMultipartFile("file", "again.csv", "text/csv", again.getBytes()));
+
+        assertEquals(1, result.imported());
+        assertEquals(2, result.skippedDuplicates());
+        assertEquals(3, service.exportToCsv(List.of("LT-ARCHIVE-2"), null, null).totalRecords());
+        assertEquals(0, service.calculateBalance("LT-ARCHIVE-2", null, null).balances().get(0).amount()
+                .compareTo(new BigDecimal("1404.68")));
+    }
+
+    @Test
+    void shouldRestoreSegment_whenDeletingArchivedRowsRollsBack() {
+        String january = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-ARCHIVE-3,2024-01-01T09:15:00,Employer,January salary,1500.00,EUR
+                """;
+        service.importFromCsv(new MockMultipartFile("file", "january.csv", "text/csv", january.getBytes()));
+
+        doThrow(new DataIntegrityViolationException("delete failed")).when(repository).deleteAllByIdInBatch(any());
+        assertThrows(DataIntegrityViolationException.class, () -> archiveJob.archiveBefore(YearMonth.of(2024, 3)));
+        assertTrue(archiveStore.read("LT-ARCHIVE-3", null, null).isEmpty());
+
+        reset(repository);
+        archiveJob.archiveBefore(YearMonth.of(2024, 3));
+        String later = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-ARCHIVE-3,2024-01-03T18:40:00,Maxima,Groceries,-85.32,EUR
+                """;
+        service.importFromCsv(new MockMultipartFile("file", "later.csv", "text/csv", later.getBytes()));
+
+        doThrow(new DataIntegrityViolationException("delete failed")).when(repository).deleteAllByIdInBatch(any());
+        assertThrows(DataIntegrityViolationException.class, () -> archiveJob.archiveBefore(YearMonth.of(2024, 3)));
+
+        assertEquals(1, archiveStore.read("LT-ARCHIVE-3", null, null).size());
+        assertEquals(1, repository.findForExport(List.of("LT-ARCHIVE-3"), null, null).size());
+        assertEquals(2, service.exportToCsv(List.of("LT-ARCHIVE-3"), null, null).totalRecords());
+    }
+}
@@ -0,0 +1,145 @@
+package lt.daiva.bankstatement.archive;
+
+import lt.daiva.bankstatement.model.BankOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackArchivedOperationsWithinRange() {
+        ArchiveStore store = new ArchiveStore(directory, 64);
+        store.write("LT/1", YearMonth.of(2025, 1), List.of(
+                operation("LT/1", "2025-01-01T09:15:00", "Employer", "1500.00", "EUR"),
+                operation("LT/1", "2025-01-03T18:40:00.123", "Maxima", "-85.32", "EUR"),
+                operation("LT/1", "2025-01-05T12:10:00", "Upwork", "200.00", "USD")
+        ));
+
+        var all = store.read("LT/1", null, null);
+        var range = store.read("LT/1",
+                LocalDateTime.parse("2025-01-02T00:00:00"), LocalDateTime.parse("2025-01-04T23:59:59"));
+
+        assertEquals(3, all.size());
+        assertEquals("LT/1", all.get(0).getAccountNumber());
+        assertEquals(LocalDateTime.parse("2025-01-03T18:40:00.123"), all.get(1).getOperationTime());
+        assertEquals(0, all.get(1).getAmount().compareTo(new BigDecimal("-85.32")));
+        assertEquals("USD", all.get(2).getCurrency());
+        assertEquals(1, range.size());
+        assertEquals("Maxima", range.get(0).getBeneficiary());
+        assertTrue(store.read("LT2", null, null).isEmpty());
+    }
+
+    @Test
+    void shouldSumWholeMonthsFromSummaryAndPartialMonthsFromRows() {
+        ArchiveStore store = new ArchiveStore(directory, 64);
+        store.write("LT1", YearMonth.of(2025, 1), List.of(
+                operation("LT1", "2025-01-01T09:15:00", "A", "100.00", "EUR"),
+                operation("LT1", "2025-01-20T09:15:00", "B", "50.00", "EUR")
+        ));
+        store.write("LT1", YearMonth.of(2025, 2), List.of(
+                operation("LT1", "2025-02-10T09:15:00", "C", "10.00", "EUR"),
+                operation("LT1", "2025-02-11T09:15:00", "D", "7.50", "USD")
+        ));
+
+        var all = store.balances("LT1", null, null);
+        var partial = store.balances("LT1",
+                LocalDateTime.parse("2025-01-10T00:00:00"), LocalDateTime.parse("2025-02-28T23:59:59"));
+
+        assertEquals(0, all.get("EUR").compareTo(new BigDecimal("160.00")));
+        assertEquals(0, all.get("USD").compareTo(new BigDecimal("7.50")));
+        assertEquals(0, partial.get("EUR").compareTo(new BigDecimal("60.00")));
+    }
+
+    @Test
+    void shouldMergeIntoExistingSegmentAndDropDuplicates() {
+        ArchiveStore store = new ArchiveStore(directory, 64);
+        store.write("LT1", YearMonth.of(2025, 1), List.of(
+                operation("LT1", "2025-01-10T09:15:00", "A", "100.00", "EUR")
+        ));
+        store.read("LT1", null, null);
+
+        store.write("LT1", YearMonth.of(2025, 1), List.of(
+                operation("LT1", "2025-01-01T09:15:00", "B", "5.00", "EUR"),
+                operation("LT1", "2025-01-10T09:15:00", "A", "100.0", "EUR")
+        ));
+
+        var rows = store.read("LT1", null, null);
+        assertEquals(List.of("B", "A"), rows.stream().map(BankOperation::getBeneficiary).toList());
+        assertEquals(0, store.balances("LT1", null, null).get("EUR").compareTo(new BigDecimal("105.00")));
+    }
+
+    @Test
+    void iterator_shouldKeepReadingChosenSegments_afterTheyAreRewritten() {
+        ArchiveStore store = new ArchiveStore(directory, 64);
+        store.write("LT1", YearMonth.of(2025, 1), List.of(operation("LT1", "2025-01-10T09:15:00", "A", "1.00", "EUR")));
+        store.write("LT1", YearMonth.of(2025, 2), List.of(operation("LT1", "2025-02-10T09:15:00", "B", "2.00", "EUR")));
+
+        var iterator = store.withSnapshot(() -> store.iterator("LT1", null, null));
+        store.exclusively(() -> store.write("LT1", YearMonth.of(2025, 2),
+                List.of(operation("LT1", "2025-02-11T09:15:00", "C", "3.00", "EUR"))));
+        List<String> read = new ArrayList<>();
+        iterator.forEachRemaining(row -> read.add(row.getBeneficiary()));
+
+        assertEquals(List.of("A", "B"), read);
+        assertEquals(3, store.read("LT1", null, null).size());
+    }
+
+    @Test
+    void shouldKeepDotAccountNumbersInsideArchiveDirectory() throws Exception {
+        Path archive = directory.resolve("archive");
+        ArchiveStore store = new ArchiveStore(archive, 64);
+
+        store.write("..", YearMonth.of(2025, 1), List.of(operation("..", "2025-01-01T09:15:00", "A", "1.00", "EUR")));
+
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(archive), files.toList());
+        }
+        assertEquals(List.of(".."), store.accounts());
+        assertEquals(1, store.read("..", null, null).size());
+    }
+
+    @Test
+    void contains_shouldMatchOnUniqueKey() {
+        ArchiveStore store = new ArchiveStore(directory, 64);
+        store.write("LT1", YearMonth.of(2025, 1), List.of(
+                operation("LT1", "2025-01-10T09:15:00", "A", "100.00", "EUR")
+        ));
+
+        assertTrue(store.contains(operation("LT1", "2025-01-10T09:15:00", "A", "100.0", "EUR")));
+        assertFalse(store.contains(operation("LT1", "2025-01-10T09:15:00", "A", "100.01", "EUR")));
+        assertFalse(store.contains(operation("LT1", "2025-02-10T09:15:00", "A", "100.00", "EUR")));
+    }
+
+    @Test
+    void contains_shouldStayCorrect_whenKeyCacheEvictsSegments() {
+        ArchiveStore store = new ArchiveStore(directory, 1);
+        store.write("LT1", YearMonth.of(2025, 1), List.of(operation("LT1", "2025-01-10T09:15:00", "A", "1.00", "EUR")));
+        store.write("LT2", YearMonth.of(2025, 1), List.of(operation("LT2", "2025-01-10T09:15:00", "B", "2.00", "EUR")));
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(store.contains(operation("LT1", "2025-01-10T09:15:00", "A", "1.00", "EUR")));
+            assertTrue(store.contains(operation("LT2", "2025-01-10T09:15:00", "B", "2.00", "EUR")));
+            assertFalse(store.contains(operation("LT2", "2025-01-10T09:15:00", "A", "1.00", "EUR")));
+        }
+    }
+
+    private static BankOperation operation(String account, String time, String beneficiary,
+                                           String amount, String currency) {
+        return new BankOperation(account, LocalDateTime.parse(time), beneficiary, "", new BigDecimal(amount), currency);
+    }
+}
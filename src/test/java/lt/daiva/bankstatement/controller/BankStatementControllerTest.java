@@ -2,7 +2,19 @@ package lt.daiva.bankstatement.controller;
 
 import lt.daiva.bankstatement.dto.BalanceResponse;
 import lt.daiva.bankstatement.dto.CurrencyBalance;
+import lt.daiva.bankstatement.dto.ExportQuery;
+import lt.daiva.bankstatement.dto.ExportResult;
+import lt.daiva.bankstatement.dto.FileImportResult;
+import lt.daiva.bankstatement.dto.ImportResult;
+import lt.daiva.bankstatement.dto.ZipImportResult;
+import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.exception.ExportAbortedException;
+import lt.daiva.bankstatement.export.OperationWriter;
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.service.AccountSummaryService;
 import lt.daiva.bankstatement.service.BankStatementService;
+import lt.daiva.bankstatement.service.StatementReconciler;
+import lt.daiva.bankstatement.service.ZipImportService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -10,16 +22,24 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -32,6 +52,15 @@ class BankStatementControllerTest {
     @MockitoBean
     BankStatementService service;
 
+    @MockitoBean
+    ZipImportService zipImportService;
+
+    @MockitoBean
+    StatementReconciler statementReconciler;
+
+    @MockitoBean
+    AccountSummaryService accountSummaryService;
+
     @Test
     void shouldReturnBalance_whenRequestIsValid() throws Exception {
         when(service.calculateBalance(eq("LT100001"), any(), any()))
@@ -69,4 +98,92 @@ class BankStatementControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnPerFileBreakdown_whenImportingZipFile() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "batch.zip",
+                "application/zip",
+                new byte[]{0x50, 0x4b}
+        );
+        when(zipImportService.importFromZip(any()))
+                .thenReturn(new ZipImportResult(
+                        List.of(FileImportResult.imported("a.csv", new ImportResult(2, 1)),
+                                FileImportResult.failed("b.csv", "Missing required column: comment")),
+                        new ImportResult(2, 1)));
+
+        mockMvc.perform(multipart("/api/v1/statements/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.files.length()").value(2))
+                .andExpect(jsonPath("$.files[0].result.imported").value(2))
+                .andExpect(jsonPath("$.files[1].error").value("Missing required column: comment"))
+                .andExpect(jsonPath("$.total.imported").value(2))
+                .andExpect(jsonPath("$.total.skippedDuplicates").value(1));
+    }
+
+    @Test
+    void shouldExportCsv_whenNoFormatIsRequested() throws Exception {
+        when(service.exportToCsv(eq(List.of("LT100001")), any(), any()))
+                .thenReturn(new ExportResult("accountNumber\n".getBytes(), 0));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/statements/export")
+                        .param("accounts", "LT100001")
+                        .accept("*/*"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("X-Total-Records", "0"))
+                .andExpect(content().string("accountNumber\n"));
+    }
+
+    @Test
+    void shouldStreamNdjson_whenRequestedByAcceptHeader() throws Exception {
+        var query = new ExportQuery(List.of("LT100001"), null, null);
+        when(service.exportQuery(eq(List.of("LT100001")), any(), any())).thenReturn(query);
+        when(service.streamExport(eq(query), any())).thenAnswer(invocation -> {
+            OperationWriter writer = invocation.getArgument(1);
+            writer.write(new BankOperation("LT100001", LocalDateTime.parse("2025-01-05T12:10:00"),
+                    "Upwork", "Freelance payment", new BigDecimal("200.00"), "EUR"));
+            writer.finish(1);
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/statements/export")
+                        .param("accounts", "LT100001")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"accountNumber\":\"LT100001\",\"operationDateTime\":\"2025-01-05T12:10\","
+                        + "\"beneficiary\":\"Upwork\",\"comment\":\"Freelance payment\",\"amount\":200.00,"
+                        + "\"currency\":\"EUR\"}\n"));
+    }
+
+    @Test
+    void shouldAbortNdjsonResponse_whenExportFailsWhileStreaming() throws Exception {
+        var query = new ExportQuery(List.of("LT100001"), null, null);
+        when(service.exportQuery(eq(List.of("LT100001")), any(), any())).thenReturn(query);
+        when(service.streamExport(eq(query), any())).thenAnswer(invocation -> {
+            OperationWriter writer = invocation.getArgument(1);
+            writer.write(new BankOperation("LT100001", LocalDateTime.parse("2025-01-05T12:10:00"),
+                    "Upwork", "Freelance payment", new BigDecimal("200.00"), "EUR"));
+            throw new BankStatementException("Failed to export: connection reset");
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/statements/export")
+                        .param("accounts", "LT100001")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Exception ex = assertThrows(Exception.class, () -> mockMvc.perform(asyncDispatch(result)));
+        assertInstanceOf(ExportAbortedException.class, ex.getCause());
+    }
+}
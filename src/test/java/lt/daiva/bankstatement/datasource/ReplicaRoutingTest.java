@@ -0,0 +1,106 @@
+package lt.daiva.bankstatement.datasource;
+
+import lt.daiva.bankstatement.exception.AccountNotFoundException;
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import lt.daiva.bankstatement.service.BankStatementService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes against a replica URL distinct from the primary; the default replica URL in
+ * application.yml is an alias of the primary database and would hide routing mistakes.
+ */
+@SpringBootTest(properties = {
+        "bank-statement.replica.enabled=true",
+        "bank-statement.replica.staleness-window=1m",
+        "bank-statement.replica.datasource.jdbc-url=jdbc:h2:mem:bankdb-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+class ReplicaRoutingTest {
+
+    @Autowired
+    private BankStatementService service;
+
+    @Autowired
+    private BankOperationRepository repository;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void migrateReplica() {
+        // the replica stand-in is a separate, always empty H2 database
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+    }
+
+    @Test
+    void shouldReadFromReplica_whenAccountWasNotRecentlyImported() {
+        repository.save(new BankOperation("LT-REPLICA-1", LocalDateTime.parse("2025-01-01T10:00:00"),
+                "A", "", new BigDecimal("100.00"), "EUR"));
+
+        var balance = service.calculateBalance("LT-REPLICA-1", null, null);
+        var export = service.exportToCsv(List.of("LT-REPLICA-1"), null, null);
+
+        assertTrue(balance.balances().isEmpty());
+        assertEquals(0, export.totalRecords());
+    }
+
+    @Test
+    void shouldReadFromPrimary_whenAccountWasImportedWithinStalenessWindow() {
+        String csv = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-REPLICA-2,2025-01-01T09:15:00,Employer,January salary,1500.00,EUR
+                """;
+        service.importFromCsv(new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes()));
+
+        var balance = service.calculateBalance("LT-REPLICA-2", null, null);
+        var export = service.exportToCsv(List.of("LT-REPLICA-2"), null, null);
+
+        assertEquals(1, balance.balances().size());
+        assertEquals(0, balance.balances().get(0).amount().compareTo(new BigDecimal("1500.00")));
+        assertEquals(1, export.totalRecords());
+    }
+
+    @Nested
+    @TestPropertySource(properties = "bank-statement.summary.reject-unknown-accounts=true")
+    class WithUnknownAccountsRejected {
+
+        @Autowired
+        private BankStatementService service;
+
+        @Test
+        void shouldFindAccountOnPrimary_whenBalanceIsReadRightAfterImport() {
+            String csv = """
+                    accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                    LT-REPLICA-3,2025-01-01T09:15:00,Employer,January salary,1500.00,EUR
+                    """;
+            service.importFromCsv(new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes()));
+
+            var balance = service.calculateBalance("LT-REPLICA-3", null, null);
+
+            assertEquals(0, balance.balances().get(0).amount().compareTo(new BigDecimal("1500.00")));
+        }
+
+        @Test
+        void shouldRejectUnknownAccount() {
+            assertThrows(AccountNotFoundException.class, () -> service.calculateBalance("LT-REPLICA-UNKNOWN", null, null));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package lt.daiva.bankstatement.export;
+
+import lt.daiva.bankstatement.model.BankOperation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryOperationWriterTest {
+
+    @Test
+    void read_shouldReturnWrittenOperations() throws IOException {
+        List<BankOperation> operations = List.of(
+                new BankOperation("LT100001", LocalDateTime.parse("2025-01-01T09:15:00"),
+                        "Employer", "January salary", new BigDecimal("1500.00"), "EUR"),
+                new BankOperation("LT100001", LocalDateTime.parse("2025-01-03T18:40:00.123456"),
+                        "Maxima", "Groceries", new BigDecimal("-85.32"), "EUR"),
+                new BankOperation("LT100002", LocalDateTime.parse("2024-12-31T23:59:59"),
+                        "Wise", null, new BigDecimal("-0.01"), "USD")
+        );
+
+        byte[] bytes = write(operations);
+
+        List<BankOperation> read = new ArrayList<>();
+        assertEquals(3, BinaryOperationReader.read(new ByteArrayInputStream(bytes), read::add));
+        for (int i = 0; i < operations.size(); i++) {
+            BankOperation expected = operations.get(i);
+            BankOperation actual = read.get(i);
+            assertEquals(expected.getAccountNumber(), actual.getAccountNumber());
+            assertEquals(expected.getOperationTime(), actual.getOperationTime());
+            assertEquals(expected.getBeneficiary(), actual.getBeneficiary());
+            assertEquals(expected.getOperationComment(), actual.getOperationComment());
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getCurrency(), actual.getCurrency());
+        }
+        assertNull(read.get(2).getOperationComment());
+    }
+
+    @Test
+    void write_shouldSendRepeatedStringsOnce() throws IOException {
+        var operation = new BankOperation("LT100001", LocalDateTime.parse("2025-01-01T09:15:00"),
+                "Employer", "Salary", new BigDecimal("1500.00"), "EUR");
+
+        int one = write(List.of(operation)).length;
+        int hundred = write(Collections.nCopies(100, operation)).length;
+
+        // frame length 1 + type 1 + three dictionary ids 3 + zero time delta 1 + amount 3 + comment 7
+        assertEquals(16 * 99, hundred - one);
+    }
+
+    @Test
+    void read_shouldRejectTruncatedStream() throws IOException {
+        byte[] bytes = write(List.of(new BankOperation("LT100001", LocalDateTime.parse("2025-01-01T09:15:00"),
+                "Employer", "Salary", new BigDecimal("1500.00"), "EUR")));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+        assertThrows(IOException.class,
+                () -> BinaryOperationReader.read(new ByteArrayInputStream(truncated), operation -> {}));
+    }
+
+    private static byte[] write(List<BankOperation> operations) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new BinaryOperationWriter(out);
+        for (BankOperation operation : operations) {
+            writer.write(operation);
+        }
+        writer.finish(operations.size());
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,143 @@
+package lt.daiva.bankstatement.hotstore;
+
+import lt.daiva.bankstatement.archive.ArchiveStore;
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotOperationStoreTest {
+
+    private static final LocalDateTime DAY_START = LocalDateTime.now().minusDays(5).withHour(0).withMinute(0)
+            .withSecond(0).withNano(0);
+
+    @Mock
+    private BankOperationRepository bankOperationRepository;
+
+    @Mock
+    private ObjectProvider<ArchiveStore> archiveStore;
+
+    private HotOperationStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new HotOperationStore(bankOperationRepository, archiveStore, Duration.ofDays(30));
+    }
+
+    @Test
+    void shouldNotCoverAnything_beforeWarmUp() {
+        assertFalse(store.covers(DAY_START));
+    }
+
+    @Test
+    void shouldAnswerBalancesAndOperations_fromWarmedUpAndAddedOperations() {
+        when(bankOperationRepository.findByOperationTimeGreaterThanEqual(any()))
+                .thenReturn(List.of(
+                        operation("LT1", DAY_START.plusHours(10), "Employer", "1500.00", "EUR"),
+                        operation("LT2", DAY_START.plusHours(11), "Telia", "-19.99", "EUR")
+                ));
+        store.warmUp();
+
+        store.add(operation("LT1", DAY_START.plusHours(9), "Maxima", "-85.32", "EUR"));
+        store.add(operation("LT1", DAY_START.plusHours(12), "Upwork", "200.00", "USD"));
+        store.add(operation("LT1", DAY_START.minusDays(60), "Too old", "1.00", "EUR"));
+
+        assertTrue(store.covers(DAY_START));
+        assertFalse(store.covers(null));
+        assertFalse(store.covers(DAY_START.minusDays(60)));
+
+        var balances = store.balances("LT1", DAY_START, null);
+        assertEquals(2, balances.size());
+        assertEquals("EUR", balances.get(0).currency());
+        assertEquals(0, balances.get(0).amount().compareTo(new BigDecimal("1414.68")));
+        assertEquals(0, balances.get(1).amount().compareTo(new BigDecimal("200.00")));
+
+        var range = store.balances("LT1", DAY_START.plusHours(10), DAY_START.plusHours(10));
+        assertEquals(1, range.size());
+        assertEquals(0, range.get(0).amount().compareTo(new BigDecimal("1500.00")));
+
+        var operations = store.operations(List.of("LT2", "LT1"), DAY_START, DAY_START.plusDays(1));
+        assertEquals(List.of("Maxima", "Employer", "Upwork", "Telia"),
+                operations.stream().map(BankOperation::getBeneficiary).toList());
+        assertEquals(DAY_START.plusHours(9), operations.get(0).getOperationTime());
+        assertTrue(store.balances("LT3", DAY_START, null).isEmpty());
+    }
+
+    @Test
+    void shouldHoldOperationOnce_whenStoredBeforeWarmUpAndLoadedByIt() {
+        BankOperation replayed = operation("LT1", DAY_START.plusHours(10), "Employer", "1500.00", "EUR");
+        ReflectionTestUtils.setField(replayed, "id", 1L);
+        BankOperation loaded = operation("LT1", DAY_START.plusHours(10), "Employer", "1500.00", "EUR");
+        ReflectionTestUtils.setField(loaded, "id", 1L);
+        when(bankOperationRepository.findByOperationTimeGreaterThanEqual(any())).thenReturn(List.of(loaded));
+
+        store.add(replayed);
+        store.warmUp();
+
+        assertEquals(1, store.operations(List.of("LT1"), DAY_START, null).size());
+        assertEquals(0, store.balances("LT1", DAY_START, null).get(0).amount().compareTo(new BigDecimal("1500.00")));
+    }
+
+    @Test
+    void shouldLoadArchivedOperationsInsideHorizon_duringWarmUp(@TempDir Path directory) {
+        ArchiveStore archive = new ArchiveStore(directory, 64);
+        BankOperation archived = operation("LT1", DAY_START.plusHours(8), "Archived", "-10.00", "EUR");
+        archive.write("LT1", YearMonth.from(archived.getOperationTime()), List.of(archived));
+        when(archiveStore.getIfAvailable()).thenReturn(archive);
+        when(bankOperationRepository.findByOperationTimeGreaterThanEqual(any()))
+                .thenReturn(List.of(operation("LT1", DAY_START.plusHours(10), "Employer", "1500.00", "EUR")));
+
+        store.warmUp();
+
+        assertEquals(List.of("Archived", "Employer"),
+                store.operations(List.of("LT1"), DAY_START, null).stream().map(BankOperation::getBeneficiary).toList());
+        assertEquals(0, store.balances("LT1", DAY_START, null).get(0).amount().compareTo(new BigDecimal("1490.00")));
+    }
+
+    @Test
+    void iterator_shouldReadAllRowsInChunks_withoutSplittingEqualTimes() {
+        when(bankOperationRepository.findByOperationTimeGreaterThanEqual(any())).thenReturn(List.of());
+        store.warmUp();
+        for (int i = 0; i < 3000; i++) {
+            // 20 rows per second, so chunk boundaries fall inside runs of equal times
+            store.add(operation("LT1", DAY_START.plusSeconds(i / 20), "Row " + i, "1.00", "EUR"));
+        }
+
+        Iterator<BankOperation> iterator = store.iterator(List.of("LT1"), DAY_START, null);
+        iterator.next();
+        store.add(operation("LT1", DAY_START.plusDays(1), "Added while iterating", "1.00", "EUR"));
+        List<BankOperation> rest = new ArrayList<>();
+        iterator.forEachRemaining(rest::add);
+
+        assertEquals(3000, rest.size());
+        assertEquals("Row 1", rest.get(0).getBeneficiary());
+        assertEquals("Added while iterating", rest.get(rest.size() - 1).getBeneficiary());
+    }
+
+    private static BankOperation operation(String account, LocalDateTime time, String beneficiary,
+                                           String amount, String currency) {
+        return new BankOperation(account, time, beneficiary, "", new BigDecimal(amount), currency);
+    }
+}
@@ -0,0 +1,159 @@
+package lt.daiva.bankstatement.journal;
+
+import lt.daiva.bankstatement.exception.JournalFullException;
+import lt.daiva.bankstatement.model.BankOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestJournalTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(100);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldHandOutAppendedEntriesInOrderAndTrackWatermarks() throws Exception {
+        IngestJournal journal = open(DataSize.ofMegabytes(1));
+
+        long first = journal.append(List.of(operation("A", "1.00"), operation("B", "2.00")));
+        long second = journal.append(List.of(operation("C", "3.00")));
+
+        assertEquals(2, first);
+        assertEquals(3, second);
+        assertEquals(3, journal.status().pendingOperations());
+
+        var batch = journal.poll(10, TIMEOUT);
+        assertEquals(List.of(1L, 2L, 3L), batch.stream().map(JournalEntry::sequence).toList());
+        assertEquals("B", batch.get(1).beneficiary());
+        assertEquals(0, batch.get(2).amount().compareTo(new BigDecimal("3.00")));
+
+        assertFalse(journal.awaitApplied(second, TIMEOUT));
+        journal.markApplied(second);
+        assertTrue(journal.awaitApplied(second, TIMEOUT));
+        assertEquals(0, journal.status().pendingOperations());
+        journal.close();
+    }
+
+    @Test
+    void shouldReplayUnappliedEntriesAndDropTornTail_onReopen() throws Exception {
+        IngestJournal journal = open(DataSize.ofMegabytes(1));
+        journal.append(List.of(operation("A", "1.00"), operation("B", "2.00")));
+        journal.close();
+
+        Path segment = onlySegment();
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        IngestJournal reopened = open(DataSize.ofMegabytes(1));
+        var replayed = reopened.poll(10, TIMEOUT);
+
+        assertEquals(List.of("A", "B"), replayed.stream().map(JournalEntry::beneficiary).toList());
+        assertEquals(3, reopened.append(List.of(operation("C", "3.00"))));
+        reopened.close();
+
+        IngestJournal again = open(DataSize.ofMegabytes(1));
+        assertEquals(3, again.poll(10, TIMEOUT).size());
+        again.close();
+    }
+
+    @Test
+    void shouldReplayOnlyEntriesAfterAppliedSequence_onReopen() throws Exception {
+        IngestJournal journal = open(DataSize.ofMegabytes(1));
+        journal.append(List.of(operation("A", "1.00"), operation("B", "2.00"), operation("C", "3.00")));
+        journal.poll(10, TIMEOUT);
+        journal.markApplied(2);
+        journal.close();
+
+        IngestJournal reopened = open(DataSize.ofMegabytes(1));
+        assertEquals(List.of("C"), reopened.poll(10, TIMEOUT).stream().map(JournalEntry::beneficiary).toList());
+        assertEquals(1, reopened.status().pendingOperations());
+        reopened.markApplied(3);
+        reopened.close();
+
+        IngestJournal again = open(DataSize.ofMegabytes(1));
+        assertTrue(again.poll(10, TIMEOUT).isEmpty());
+        assertEquals(0, Files.size(onlySegment()));
+        assertEquals(4, again.append(List.of(operation("D", "4.00"))));
+        again.close();
+    }
+
+    @Test
+    void shouldDeleteFullyAppliedSegments() throws Exception {
+        IngestJournal journal = open(DataSize.ofBytes(1));
+
+        journal.append(List.of(operation("A", "1.00")));
+        journal.append(List.of(operation("B", "2.00")));
+        assertEquals(3, segmentCount());
+
+        journal.poll(10, TIMEOUT);
+        journal.markApplied(1);
+        assertEquals(2, segmentCount());
+        journal.markApplied(2);
+        assertEquals(1, segmentCount());
+        journal.close();
+
+        IngestJournal reopened = open(DataSize.ofBytes(1));
+        assertEquals(3, reopened.append(List.of(operation("C", "3.00"))));
+        reopened.close();
+    }
+
+    @Test
+    void append_shouldBlockAndFail_whenTooManyOperationsArePending() throws Exception {
+        IngestJournal journal = open(DataSize.ofMegabytes(1), 2);
+
+        journal.append(List.of(operation("A", "1.00"), operation("B", "2.00")));
+
+        assertThrows(JournalFullException.class, () -> journal.append(List.of(operation("C", "3.00"))));
+
+        journal.poll(10, TIMEOUT);
+        journal.markApplied(2);
+        assertEquals(3, journal.append(List.of(operation("C", "3.00"))));
+        journal.close();
+    }
+
+    private IngestJournal open(DataSize segmentSize) throws IOException {
+        return open(segmentSize, 1000);
+    }
+
+    private IngestJournal open(DataSize segmentSize, long maxPending) throws IOException {
+        IngestJournal journal = new IngestJournal(directory, segmentSize, maxPending, TIMEOUT);
+        journal.open();
+        return journal;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(IngestJournalTest::isSegment).findFirst().orElseThrow();
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(IngestJournalTest::isSegment).count();
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        return path.getFileName().toString().startsWith("segment-");
+    }
+
+    private static BankOperation operation(String beneficiary, String amount) {
+        return new BankOperation("LT100001", LocalDateTime.parse("2025-01-01T09:15:00"),
+                beneficiary, "", new BigDecimal(amount), "EUR");
+    }
+}
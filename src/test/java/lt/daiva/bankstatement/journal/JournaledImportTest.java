@@ -0,0 +1,69 @@
+package lt.daiva.bankstatement.journal;
+
+import lt.daiva.bankstatement.model.BankOperation;
+import lt.daiva.bankstatement.service.BankStatementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "bank-statement.journal.enabled=true",
+        "bank-statement.journal.directory=${java.io.tmpdir}/bank-statement-journal-test-${random.uuid}"
+})
+class JournaledImportTest {
+
+    @Autowired
+    private BankStatementService service;
+
+    @Autowired
+    private IngestJournal journal;
+
+    @Test
+    void shouldApplyJournaledImport_andSeeItAfterAwaitingTheSequence() {
+        String csv = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-JOURNAL-1,2025-01-01T09:15:00,Employer,January salary,1500.00,EUR
+                LT-JOURNAL-1,2025-01-03T18:40:00,Maxima,Groceries,-85.32,EUR
+                LT-JOURNAL-1,2025-01-03T18:40:00,Maxima,Groceries,-85.32,EUR
+                """;
+
+        var result = service.importFromCsv(new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes()));
+
+        assertNotNull(result.journalSequence());
+        assertEquals(3, result.accepted());
+        assertNull(result.imported());
+        assertNull(result.skippedDuplicates());
+
+        service.awaitJournal(result.journalSequence());
+
+        var balance = service.calculateBalance("LT-JOURNAL-1", null, null);
+        assertEquals(0, balance.balances().get(0).amount().compareTo(new BigDecimal("1414.68")));
+        assertEquals(2, service.exportToCsv(List.of("LT-JOURNAL-1"), null, null).totalRecords());
+    }
+
+    @Test
+    void shouldDeadLetterRejectedEntry_andApplyLaterOnes() throws Exception {
+        long rejected = journal.append(List.of(new BankOperation("LT-JOURNAL-2", LocalDateTime.parse("2025-01-01T09:15:00"),
+                "B".repeat(300), "", new BigDecimal("1.00"), "EUR")));
+        long accepted = journal.append(List.of(new BankOperation("LT-JOURNAL-2", LocalDateTime.parse("2025-01-02T09:15:00"),
+                "Employer", "", new BigDecimal("2.00"), "EUR")));
+
+        service.awaitJournal(accepted);
+
+        assertEquals(1, service.exportToCsv(List.of("LT-JOURNAL-2"), null, null).totalRecords());
+        String deadLetters = Files.readString(journal.deadLetterFile());
+        assertTrue(deadLetters.contains("LT-JOURNAL-2,2025-01-01T09:15"));
+        assertTrue(deadLetters.contains("," + rejected + ","));
+    }
+}
@@ -0,0 +1,59 @@
+package lt.daiva.bankstatement.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and failures of one endpoint, recorded concurrently by the load workers.
+ */
+final class EndpointLatency {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final AtomicLong errors = new AtomicLong();
+
+    void record(long nanos) {
+        recorder.recordValue(nanos);
+    }
+
+    void error() {
+        errors.incrementAndGet();
+    }
+
+    /**
+     * Discards everything recorded so far, e.g. during warm-up.
+     */
+    void reset() {
+        recorder.reset();
+        errors.set(0);
+    }
+
+    Report report(double seconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Report(
+                histogram.getTotalCount(),
+                errors.get(),
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())
+        );
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @param requests   successful requests
+     * @param throughput successful requests per second
+     */
+    record Report(long requests, long errors, double throughput,
+                  double p50Millis, double p99Millis, double p999Millis, double maxMillis) {}
+}
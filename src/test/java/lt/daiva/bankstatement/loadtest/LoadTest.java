@@ -0,0 +1,266 @@
+package lt.daiva.bankstatement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lt.daiva.bankstatement.service.BankStatementService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mixed import, balance and export traffic against the application on a random port.
+ * <p>
+ * Seeds {@code loadtest.accounts} x {@code loadtest.operations-per-account} synthetic
+ * operations, then {@code loadtest.concurrency} workers send requests back to back,
+ * picking the endpoint by the {@code loadtest.mix} weights. Operations start
+ * {@code loadtest.history} ago, so that they fall inside the hot store horizon. Latencies after
+ * {@code loadtest.warm-up} are written per endpoint to {@code loadtest.output} as JSON.
+ * <p>
+ * Excluded from the regular build; run with {@code mvn -Ploadtest test}. Any
+ * {@code -Dbank-statement.*} option applies to the application under test.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL",
+        "bank-statement.replica.datasource.jdbc-url=jdbc:h2:mem:loadtest;MODE=PostgreSQL",
+        "spring.jpa.show-sql=false"
+})
+class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+    private static final int SEED_ROWS_PER_FILE = 5_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BankStatementService bankStatementService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.accounts:20}")
+    private int accounts;
+
+    @Value("${loadtest.operations-per-account:500}")
+    private int operationsPerAccount;
+
+    @Value("${loadtest.concurrency:8}")
+    private int concurrency;
+
+    @Value("${loadtest.warm-up:5s}")
+    private Duration warmUp;
+
+    @Value("${loadtest.duration:30s}")
+    private Duration duration;
+
+    @Value("${loadtest.mix:import=1,balance=6,export=3}")
+    private String mix;
+
+    @Value("${loadtest.import-rows:100}")
+    private int importRows;
+
+    @Value("${loadtest.history:60d}")
+    private Duration history;
+
+    @Value("${bank-statement.hot-store.enabled:false}")
+    private boolean hotStoreEnabled;
+
+    @Value("${loadtest.output:target/loadtest/results.json}")
+    private Path output;
+
+    private SyntheticStatements statements;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        seed();
+
+        Map<String, Integer> weights = parseMix(mix);
+        Map<String, EndpointLatency> endpoints = new LinkedHashMap<>();
+        weights.keySet().forEach(endpoint -> endpoints.put(endpoint, new EndpointLatency()));
+        RestClient client = RestClient.builder()
+                .baseUrl("http://localhost:" + port + "/api/v1/statements")
+                .build();
+
+        run(client, weights, endpoints, warmUp);
+        endpoints.values().forEach(EndpointLatency::reset);
+
+        long started = System.nanoTime();
+        run(client, weights, endpoints, duration);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, EndpointLatency.Report> reports = new LinkedHashMap<>();
+        endpoints.forEach((endpoint, latency) -> reports.put(endpoint, latency.report(seconds)));
+        writeReport(seconds, reports);
+
+        reports.forEach((endpoint, report) -> assertEquals(0, report.errors(), endpoint + " requests failed"));
+    }
+
+    private void seed() {
+        statements = new SyntheticStatements(LocalDate.now().atStartOfDay().minus(history));
+        long started = System.nanoTime();
+        for (int account = 0; account < accounts; account++) {
+            for (int done = 0; done < operationsPerAccount; done += SEED_ROWS_PER_FILE) {
+                String csv = statements.csv(SyntheticStatements.account(account),
+                        Math.min(SEED_ROWS_PER_FILE, operationsPerAccount - done));
+                bankStatementService.importFromCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        log.info("Seeded {} accounts x {} operations in {} ms", accounts, operationsPerAccount,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void run(RestClient client, Map<String, Integer> weights,
+                     Map<String, EndpointLatency> endpoints, Duration length) throws Exception {
+        long deadline = System.nanoTime() + length.toNanos();
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                running.add(workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        String endpoint = pick(weights, totalWeight);
+                        EndpointLatency latency = endpoints.get(endpoint);
+                        long start = System.nanoTime();
+                        try {
+                            send(client, endpoint);
+                            latency.record(System.nanoTime() - start);
+                        } catch (RestClientException e) {
+                            latency.error();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void send(RestClient client, String endpoint) {
+        var random = ThreadLocalRandom.current();
+        LocalDate firstDay = statements.firstDay();
+        LocalDate from = firstDay.plusDays(random.nextLong(Math.max(1, ChronoUnit.DAYS.between(firstDay, statements.lastDay()))));
+
+        switch (endpoint) {
+            case "import" -> {
+                String account = SyntheticStatements.account(random.nextInt(accounts));
+                var file = new ByteArrayResource(statements.csv(account, importRows).getBytes(StandardCharsets.UTF_8)) {
+                    @Override
+                    public String getFilename() {
+                        return "load.csv";
+                    }
+                };
+                var headers = new HttpHeaders();
+                headers.setContentType(MediaType.parseMediaType("text/csv"));
+                var body = new LinkedMultiValueMap<String, Object>();
+                body.add("file", new HttpEntity<>(file, headers));
+                client.post().uri("/import")
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                        .body(body)
+                        .retrieve()
+                        .toBodilessEntity();
+            }
+            case "balance" -> client.get()
+                    .uri("/accounts/{account}/balance?from={from}&to={to}",
+                            SyntheticStatements.account(random.nextInt(accounts)), from, from.plusDays(random.nextInt(1, 31)))
+                    .retrieve()
+                    .toBodilessEntity();
+            case "export" -> client.get()
+                    .uri("/export?accounts={first}&accounts={second}&from={from}&to={to}",
+                            SyntheticStatements.account(random.nextInt(accounts)),
+                            SyntheticStatements.account(random.nextInt(accounts)),
+                            from, from.plusDays(random.nextInt(1, 8)))
+                    .retrieve()
+                    .body(byte[].class);
+            default -> throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + endpoint);
+        }
+    }
+
+    private void writeReport(double seconds, Map<String, EndpointLatency.Report> reports) throws Exception {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("accounts", accounts);
+        config.put("operationsPerAccount", operationsPerAccount);
+        config.put("concurrency", concurrency);
+        config.put("warmUp", warmUp.toString());
+        config.put("duration", duration.toString());
+        config.put("mix", mix);
+        config.put("importRows", importRows);
+        config.put("history", history.toString());
+        config.put("hotStore", hotStoreEnabled);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", config);
+        report.put("seconds", seconds);
+        report.put("endpoints", reports);
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        reports.forEach((endpoint, r) -> log.info("{}: {} req, {} err, {} req/s, p50 {} ms, p99 {} ms, p99.9 {} ms",
+                endpoint, r.requests(), r.errors(), Math.round(r.throughput()),
+                r.p50Millis(), r.p99Millis(), r.p999Millis()));
+        log.info("Load test report written to {}", output.toAbsolutePath());
+    }
+
+    private static String pick(Map<String, Integer> weights, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            roll -= weight.getValue();
+            if (roll < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                weights.put(entry[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no positive weight: " + mix);
+        }
+        return weights;
+    }
+}
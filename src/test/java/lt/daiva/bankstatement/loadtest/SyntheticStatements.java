@@ -0,0 +1,59 @@
+package lt.daiva.bankstatement.loadtest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates statements in the samples/*.csv format. Operation times are taken from
+ * one sequence starting at {@code start}, so every generated row is new for the unique key.
+ */
+final class SyntheticStatements {
+
+    static final String HEADER = "accountNumber,operationDateTime,beneficiary,comment,amount,currency\n";
+
+    private static final long MINUTES_BETWEEN_OPERATIONS = 7;
+    private static final String[] BENEFICIARIES = {"Employer", "Maxima", "Rimi", "Iki", "Circle K", "Wise", "Bolt", "Telia"};
+    private static final String[] COMMENTS = {"January salary", "Groceries", "Fuel", "Top up", "Taxi", "Phone bill", ""};
+    private static final String[] CURRENCIES = {"EUR", "EUR", "EUR", "EUR", "USD", "GBP"};
+
+    private final LocalDateTime start;
+    private final AtomicLong sequence = new AtomicLong();
+
+    SyntheticStatements(LocalDateTime start) {
+        this.start = start;
+    }
+
+    static String account(int index) {
+        return "LT" + (100001 + index);
+    }
+
+    String csv(String accountNumber, int rows) {
+        var random = ThreadLocalRandom.current();
+        var csv = new StringBuilder(HEADER.length() + rows * 64).append(HEADER);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime time = start.plusMinutes(sequence.getAndIncrement() * MINUTES_BETWEEN_OPERATIONS);
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(-50_000, 150_000), 2);
+            csv.append(accountNumber).append(',')
+                    .append(time).append(',')
+                    .append(BENEFICIARIES[random.nextInt(BENEFICIARIES.length)]).append(',')
+                    .append(COMMENTS[random.nextInt(COMMENTS.length)]).append(',')
+                    .append(amount.toPlainString()).append(',')
+                    .append(CURRENCIES[random.nextInt(CURRENCIES.length)]).append('\n');
+        }
+        return csv.toString();
+    }
+
+    LocalDate firstDay() {
+        return start.toLocalDate();
+    }
+
+    /**
+     * @return last day covered by the rows generated so far
+     */
+    LocalDate lastDay() {
+        return start.plusMinutes(sequence.get() * MINUTES_BETWEEN_OPERATIONS).toLocalDate();
+    }
+}
@@ -0,0 +1,31 @@
+package lt.daiva.bankstatement.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AccountSummaryRebuilderTest {
+
+    @Test
+    void shouldStartBeforeWebServerAndJournalApplier() {
+        int webServerPhase = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+
+        assertTrue(AccountSummaryRebuilder.PHASE < webServerPhase);
+        assertTrue(AccountSummaryRebuilder.PHASE < SmartLifecycle.DEFAULT_PHASE);
+    }
+
+    @Test
+    void start_shouldRebuildSummaries() {
+        AccountSummaryService accountSummaryService = mock(AccountSummaryService.class);
+        var rebuilder = new AccountSummaryRebuilder(accountSummaryService);
+
+        rebuilder.start();
+
+        verify(accountSummaryService).rebuild();
+        assertTrue(rebuilder.isRunning());
+    }
+}
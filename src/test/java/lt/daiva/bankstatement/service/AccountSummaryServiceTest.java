@@ -0,0 +1,67 @@
+package lt.daiva.bankstatement.service;
+
+import lt.daiva.bankstatement.dto.AccountSummaryResponse;
+import lt.daiva.bankstatement.dto.CurrencySummary;
+import lt.daiva.bankstatement.exception.AccountNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "bank-statement.summary.reject-unknown-accounts=true")
+class AccountSummaryServiceTest {
+
+    @Autowired
+    private BankStatementService bankStatementService;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Test
+    void importFromCsv_shouldMaintainSummaryIncrementally() {
+        bankStatementService.importFromCsv(csv("""
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-SUMMARY-1,2025-01-05T12:00:00,Employer,Salary,1500.00,EUR
+                LT-SUMMARY-1,2025-01-07T18:40:00,Maxima,Groceries,-85.32,EUR
+                """));
+        bankStatementService.importFromCsv(csv("""
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT-SUMMARY-1,2025-01-07T18:40:00,Maxima,Groceries,-85.32,EUR
+                LT-SUMMARY-1,2025-01-02T08:00:00,Wise,Top up,100.00,USD
+                LT-SUMMARY-1,2025-01-09T09:30:00,Rimi,Groceries,-14.68,EUR
+                """));
+
+        AccountSummaryResponse summary = accountSummaryService.summary("LT-SUMMARY-1");
+
+        assertEquals(4, summary.operationCount());
+        assertEquals(LocalDateTime.parse("2025-01-02T08:00:00"), summary.firstOperationTime());
+        assertEquals(LocalDateTime.parse("2025-01-09T09:30:00"), summary.lastOperationTime());
+        assertEquals(2, summary.currencies().size());
+
+        CurrencySummary eur = summary.currencies().get(0);
+        assertEquals("EUR", eur.currency());
+        assertEquals(3, eur.operationCount());
+        assertEquals(0, eur.creditTotal().compareTo(new BigDecimal("1500.00")));
+        assertEquals(0, eur.debitTotal().compareTo(new BigDecimal("100.00")));
+
+        accountSummaryService.rebuild();
+        assertEquals(summary, accountSummaryService.summary("LT-SUMMARY-1"));
+    }
+
+    @Test
+    void unknownAccount_shouldBeRejected() {
+        assertThrows(AccountNotFoundException.class, () -> accountSummaryService.summary("LT-SUMMARY-UNKNOWN"));
+        assertThrows(AccountNotFoundException.class,
+                () -> bankStatementService.calculateBalance("LT-SUMMARY-UNKNOWN", null, null));
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "statement.csv", "text/csv", content.getBytes());
+    }
+}
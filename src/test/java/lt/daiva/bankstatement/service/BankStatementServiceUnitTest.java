@@ -1,9 +1,15 @@
 package lt.daiva.bankstatement.service;
 
+import lt.daiva.bankstatement.archive.ArchiveStore;
+import lt.daiva.bankstatement.datasource.ReplicaStalenessGuard;
 import lt.daiva.bankstatement.dto.BalanceResponse;
 import lt.daiva.bankstatement.dto.CurrencyBalance;
 import lt.daiva.bankstatement.dto.ExportResult;
+import lt.daiva.bankstatement.dto.RejectedRecord;
 import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.exception.InvalidCsvRecordException;
+import lt.daiva.bankstatement.hotstore.HotOperationStore;
+import lt.daiva.bankstatement.journal.IngestJournal;
 import lt.daiva.bankstatement.model.BankOperation;
 import lt.daiva.bankstatement.repository.BankOperationRepository;
 import org.junit.jupiter.api.Test;
@@ -12,9 +18,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
@@ -25,6 +34,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -36,6 +46,24 @@ class BankStatementServiceUnitTest {
     @Mock
     private BankOperationRepository bankOperationRepository;
 
+    @Mock
+    private ReplicaStalenessGuard replicaStalenessGuard;
+
+    @Mock
+    private ObjectProvider<IngestJournal> ingestJournal;
+
+    @Mock
+    private ObjectProvider<ArchiveStore> archiveStore;
+
+    @Mock
+    private ObjectProvider<HotOperationStore> hotStore;
+
+    @Mock
+    private AccountSummaryService accountSummaryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private BankStatementService bankStatementService;
 
@@ -111,6 +139,10 @@ class BankStatementServiceUnitTest {
         var ops = captor.getAllValues();
         assertEquals(3, ops.size());
 
+        verify(accountSummaryService).record(List.of(ops.get(0)));
+        verify(accountSummaryService).record(List.of(ops.get(1)));
+        verify(accountSummaryService, never()).record(List.of(ops.get(2)));
+
         var op1 = ops.getFirst();
         assertEquals("LT100001", op1.getAccountNumber());
         assertEquals(LocalDateTime.parse("2025-01-01T09:15:00"), op1.getOperationTime());
@@ -145,6 +177,99 @@ class BankStatementServiceUnitTest {
         verifyNoInteractions(bankOperationRepository);
     }
 
+    @Test
+    void importFromCsvTolerant_shouldImportValidRowsAndRejectInvalidOnes() {
+        String csv = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT100001,2025-01-01T09:15:00,Employer,January salary,1500.00,EUR
+                LT100001,not-a-date,Maxima,Groceries,85.32,EUR
+                LT100001,2025-01-04T10:00:00,Rimi
+                LT100001,2025-01-05T10:00:00,Iki,Groceries,12.10,EUR
+                """;
+
+        MockMultipartFile file = new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes());
+
+        var tolerant = bankStatementService.importFromCsvTolerant(file, 10);
+
+        assertEquals(2, tolerant.result().imported());
+        assertEquals(2, tolerant.rejects().size());
+        verify(bankOperationRepository, times(2)).save(any(BankOperation.class));
+
+        var invalidDate = tolerant.rejects().get(0);
+        assertEquals(3, invalidDate.lineNumber());
+        assertEquals("not-a-date", invalidDate.values().get(1));
+
+        var missingColumns = tolerant.rejects().get(1);
+        assertEquals(4, missingColumns.lineNumber());
+        assertEquals(List.of("LT100001", "2025-01-04T10:00:00", "Rimi", "", "", ""), missingColumns.values());
+
+        var out = new ByteArrayOutputStream();
+        bankStatementService.writeRejectCsv(tolerant.rejects(), out);
+        String rejectCsv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(rejectCsv.startsWith(
+                "accountNumber,operationDateTime,beneficiary,comment,amount,currency,lineNumber,error"));
+        assertTrue(rejectCsv.contains("LT100001,not-a-date,Maxima,Groceries,85.32,EUR,3,"));
+    }
+
+    @Test
+    void importFromCsvTolerant_shouldStopAndKeepImportedRows_whenErrorBudgetExceeded() {
+        String csv = """
+                accountNumber,operationDateTime,beneficiary,comment,amount,currency
+                LT100001,2025-01-01T09:15:00,Employer,Salary,1500.00,EUR
+                LT100001,bad,Maxima,Groceries,85.32,EUR
+                LT100001,bad,Rimi,Groceries,12.10,EUR
+                LT100001,2025-01-04T10:00:00,Lidl,Groceries,20.00,EUR
+                """;
+
+        MockMultipartFile file = new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes());
+
+        var tolerant = bankStatementService.importFromCsvTolerant(file, 1);
+
+        assertTrue(tolerant.budgetExceeded());
+        assertEquals(1, tolerant.result().imported());
+        assertEquals(List.of(3L, 4L), tolerant.rejects().stream().map(RejectedRecord::lineNumber).toList());
+        verify(bankOperationRepository, times(1)).save(any(BankOperation.class));
+    }
+
+    @Test
+    void importFromCsvTolerant_shouldThrow_whenErrorBudgetIsNegative() {
+        MockMultipartFile file = new MockMultipartFile("file", "sample.csv", "text/csv", new byte[0]);
+
+        BankStatementException ex = assertThrows(
+                BankStatementException.class,
+                () -> bankStatementService.importFromCsvTolerant(file, -1)
+        );
+
+        assertTrue(ex.getMessage().contains("maxErrors"));
+        verifyNoInteractions(bankOperationRepository);
+    }
+
+    @Test
+    void importFromCsv_shouldRejectValuesExceedingColumnLimits_beforeJournaling() {
+        String csv = "accountNumber,operationDateTime,beneficiary,comment,amount,currency\n"
+                + "LT100001,2025-01-01T09:15:00," + "B".repeat(256) + ",Salary,1500.00,EUR\n";
+
+        MockMultipartFile file = new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes());
+
+        var ex = assertThrows(InvalidCsvRecordException.class, () -> bankStatementService.importFromCsv(file));
+
+        assertTrue(ex.getMessage().contains("beneficiary is longer than 255"));
+        verifyNoInteractions(bankOperationRepository);
+    }
+
+    @Test
+    void importFromCsv_shouldRejectAmountsNotFittingInLongMinorUnits() {
+        String csv = "accountNumber,operationDateTime,beneficiary,comment,amount,currency\n"
+                + "LT100001,2025-01-01T09:15:00,Employer,Salary,99999999999999999.99,EUR\n";
+
+        MockMultipartFile file = new MockMultipartFile("file", "sample.csv", "text/csv", csv.getBytes());
+
+        var ex = assertThrows(InvalidCsvRecordException.class, () -> bankStatementService.importFromCsv(file));
+
+        assertTrue(ex.getMessage().contains("out of range"));
+        verifyNoInteractions(bankOperationRepository);
+    }
+
     @Test
     void exportToCsv_shouldReturnCsvWithHeaderAndRows_andTotalCount() {
         List<BankOperation> ops = List.of(
@@ -0,0 +1,96 @@
+package lt.daiva.bankstatement.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lt.daiva.bankstatement.dto.ReconcileSummary;
+import lt.daiva.bankstatement.exception.BankStatementException;
+import lt.daiva.bankstatement.exception.InvalidCsvRecordException;
+import lt.daiva.bankstatement.repository.BankOperationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class StatementReconcilerTest {
+
+    private static final String HEADER = "accountNumber,operationDateTime,beneficiary,comment,amount,currency\n";
+
+    @Autowired
+    private BankStatementService bankStatementService;
+
+    @Autowired
+    private StatementReconciler statementReconciler;
+
+    @Autowired
+    private BankOperationRepository bankOperationRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void reconcile_shouldReportNewMissingAndDuplicateRowsWithoutWriting() throws Exception {
+        bankStatementService.importFromCsv(csv(HEADER + """
+                LT-RECON-1,2025-02-01T09:00:00,Employer,Salary,1500.00,EUR
+                LT-RECON-1,2025-02-03T18:40:00,Maxima,Groceries,-85.32,EUR
+                LT-RECON-1,2025-02-03T18:40:00,Rimi,Groceries,-12.10,EUR
+                LT-RECON-1,2025-03-01T09:00:00,Employer,Salary,1500.00,EUR
+                LT-RECON-2,2025-02-02T10:00:00,Iki,,-5.00,EUR
+                """));
+        long stored = bankOperationRepository.count();
+
+        // not in merge order, one stored row left out, one new and one repeated row
+        var file = csv(HEADER + """
+                LT-RECON-2,2025-02-02T10:00:00,Iki,,-5.0,EUR
+                LT-RECON-1,2025-02-03T18:40:00,Maxima,Groceries,-85.32,EUR
+                LT-RECON-1,2025-02-01T09:00:00,Employer,Salary,1500.00,EUR
+                LT-RECON-1,2025-02-04T12:00:00,Circle K,Fuel,-40.00,EUR
+                LT-RECON-1,2025-02-01T09:00:00,Employer,Salary,1500.00,EUR
+                """);
+
+        StatementReconciler.Scope scope = statementReconciler.scan(file);
+        assertFalse(scope.sorted());
+
+        var out = new ByteArrayOutputStream();
+        ReconcileSummary summary = statementReconciler.reconcile(file, scope, out);
+
+        assertEquals(new ReconcileSummary(3, 1, 1, 1), summary);
+        assertEquals(stored, bankOperationRepository.count());
+
+        JsonNode document = objectMapper.readTree(out.toByteArray());
+        assertEquals("2025-02-04T12:00:00", document.at("/accounts/LT-RECON-1/to").asText());
+
+        JsonNode diff = document.get("diff");
+        assertEquals(3, diff.size());
+        assertEquals("DUPLICATE", diff.get(0).get("status").asText());
+        assertEquals(6, diff.get(0).get("lineNumber").asLong());
+        assertEquals("MISSING", diff.get(1).get("status").asText());
+        assertEquals("Rimi", diff.get(1).get("beneficiary").asText());
+        assertFalse(diff.get(1).has("lineNumber"));
+        assertEquals("NEW", diff.get(2).get("status").asText());
+        assertEquals(5, diff.get(2).get("lineNumber").asLong());
+
+        assertEquals(1, document.at("/summary/newInFile").asLong());
+    }
+
+    @Test
+    void scan_shouldRejectFileWithInvalidRow() {
+        var file = csv(HEADER + """
+                LT-RECON-3,2025-02-01T09:00:00,Employer,Salary,1500.00,EUR
+                LT-RECON-3,yesterday,Employer,Salary,1500.00,EUR
+                """);
+
+        assertThrows(InvalidCsvRecordException.class, () -> statementReconciler.scan(file));
+        assertThrows(BankStatementException.class, () -> statementReconciler.scan(csv(HEADER)));
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "statement.csv", "text/csv", content.getBytes());
+    }
+}
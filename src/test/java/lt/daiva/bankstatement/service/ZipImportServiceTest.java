@@ -0,0 +1,168 @@
+package lt.daiva.bankstatement.service;
+
+import lt.daiva.bankstatement.dto.FileImportResult;
+import lt.daiva.bankstatement.dto.ImportResult;
+import lt.daiva.bankstatement.exception.BankStatementException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ZipImportServiceTest {
+
+    @Mock
+    private BankStatementService bankStatementService;
+
+    private ZipImportService zipImportService;
+
+    @BeforeEach
+    void setUp() {
+        zipImportService = new ZipImportService(bankStatementService, 2, DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        zipImportService.shutdown();
+    }
+
+    @Test
+    void importFromZip_shouldImportEachCsvEntryAndSumTotals() throws IOException {
+        when(bankStatementService.importFromCsv(any(InputStream.class))).thenAnswer(invocation -> {
+            String content = new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8);
+            if (content.contains("LT100001")) {
+                return new ImportResult(2, 1);
+            }
+            if (content.contains("LT200002")) {
+                return new ImportResult(3, 0);
+            }
+            throw BankStatementException.missingRequiredColumn("comment");
+        });
+
+        var file = zip(
+                "a.csv", "accountNumber,...\nLT100001",
+                "dir/b.csv", "accountNumber,...\nLT200002",
+                "c.csv", "broken",
+                "notes.txt", "hello",
+                "__MACOSX/._a.csv", "metadata"
+        );
+
+        var result = zipImportService.importFromZip(file);
+
+        assertEquals(List.of("a.csv", "dir/b.csv", "c.csv", "notes.txt"),
+                result.files().stream().map(FileImportResult::fileName).toList());
+        assertEquals(2, result.files().get(0).result().imported());
+        assertNull(result.files().get(1).error());
+        assertTrue(result.files().get(2).error().contains("comment"));
+        assertEquals("Only CSV files are supported", result.files().get(3).error());
+        assertEquals(5, result.total().imported());
+        assertEquals(1, result.total().skippedDuplicates());
+        assertNull(result.total().journalSequence());
+    }
+
+    @Test
+    void importFromZip_shouldReportOversizedEntry_andImportTheOthers() throws IOException {
+        zipImportService.shutdown();
+        zipImportService = new ZipImportService(bankStatementService, 2, DataSize.ofBytes(64));
+        when(bankStatementService.importFromCsv(any(InputStream.class))).thenReturn(new ImportResult(1, 0));
+
+        var file = zip(
+                "a.csv", "accountNumber,...\nLT100001",
+                "big.csv", "x".repeat(10_000),
+                "c.csv", "accountNumber,...\nLT300003"
+        );
+
+        var result = zipImportService.importFromZip(file);
+
+        assertEquals(List.of("a.csv", "big.csv", "c.csv"),
+                result.files().stream().map(FileImportResult::fileName).toList());
+        assertTrue(result.files().get(1).error().contains("exceeds 64 bytes"));
+        assertEquals(2, result.total().imported());
+    }
+
+    @Test
+    void importFromZip_shouldReportUnexpectedEntryFailure_andImportTheOthers() throws IOException {
+        when(bankStatementService.importFromCsv(any(InputStream.class))).thenAnswer(invocation -> {
+            String content = new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8);
+            if (content.contains("LT200002")) {
+                throw new DataIntegrityViolationException("value too long for column");
+            }
+            return new ImportResult(1, 0);
+        });
+
+        var result = zipImportService.importFromZip(zip(
+                "a.csv", "accountNumber,...\nLT100001",
+                "b.csv", "accountNumber,...\nLT200002",
+                "c.csv", "accountNumber,...\nLT300003"
+        ));
+
+        assertTrue(result.files().get(1).error().contains("value too long"));
+        assertEquals(2, result.total().imported());
+    }
+
+    @Test
+    void importFromZip_shouldReportEntriesReadBeforeArchiveBreaks() throws IOException {
+        when(bankStatementService.importFromCsv(any(InputStream.class))).thenReturn(new ImportResult(1, 0));
+        var random = new Random(42);
+        var large = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            large.append((char) ('a' + random.nextInt(26)));
+        }
+        byte[] complete = zip("a.csv", "accountNumber,...\nLT100001", "b.csv", large.toString()).getBytes();
+        var truncated = new MockMultipartFile("file", "batch.zip", "application/zip",
+                Arrays.copyOf(complete, complete.length / 2));
+
+        var result = zipImportService.importFromZip(truncated);
+
+        assertEquals(List.of("a.csv", "batch.zip"),
+                result.files().stream().map(FileImportResult::fileName).toList());
+        assertTrue(result.files().get(1).error().contains("reading stopped at b.csv"));
+        assertEquals(1, result.total().imported());
+    }
+
+    @Test
+    void importFromZip_shouldThrow_whenArchiveHasNoEntries() {
+        var file = new MockMultipartFile("file", "batch.zip", "application/zip", "not a zip".getBytes());
+
+        BankStatementException ex = assertThrows(
+                BankStatementException.class,
+                () -> zipImportService.importFromZip(file)
+        );
+
+        assertTrue(ex.getMessage().contains("no CSV files"));
+    }
+
+    private static MockMultipartFile zip(String... namesAndContents) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("file", "batch.zip", "application/zip", bytes.toByteArray());
+    }
+}
@@ -0,0 +1,143 @@
+package lt.daiva.bankstatement.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Starts the extracted application jar in a separate JVM and measures the time until the
+ * first balance request succeeds, with the default configuration and with the
+ * {@code fast-startup} profile plus the class-data-sharing archive from the training run.
+ * <p>
+ * Runs in {@code mvn -Pfast-startup verify}; the report is written to
+ * {@code fast-startup.report} as JSON.
+ */
+class TimeToFirstRequestIT {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeToFirstRequestIT.class);
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final Path directory = Path.of(System.getProperty("fast-startup.directory", "target/fast-startup"));
+    private final Path jar = directory.resolve(System.getProperty("fast-startup.jar", "bankStatement-0.0.1-SNAPSHOT.jar"));
+    private final Path archive = directory.resolve("application.jsa");
+    private final int runs = Integer.getInteger("fast-startup.runs", 3);
+    private final Path output = Path.of(System.getProperty("fast-startup.report", "target/fast-startup/time-to-first-request.json"));
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @Test
+    void timeToFirstRequest() throws Exception {
+        assertTrue(Files.isRegularFile(jar), "Extracted jar missing, run mvn -Pfast-startup verify: " + jar);
+        assertTrue(Files.isRegularFile(archive), "CDS archive missing, training run failed: " + archive);
+
+        Map<String, Object> variants = new LinkedHashMap<>();
+        variants.put("default", measure("default", List.of()));
+        variants.put("fast-startup", measure("fast-startup", List.of(
+                "-XX:SharedArchiveFile=" + archive,
+                "-Dspring.profiles.active=fast-startup")));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("java", Runtime.version().toString());
+        report.put("runs", runs);
+        report.put("variants", variants);
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().writer(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        log.info("Time-to-first-request report written to {}", output.toAbsolutePath());
+    }
+
+    private Map<String, Object> measure(String variant, List<String> jvmOptions) throws Exception {
+        List<Long> millis = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            millis.add(timeToFirstRequest(variant + "-" + run, jvmOptions));
+        }
+        List<Long> sorted = millis.stream().sorted().toList();
+        long median = sorted.get(sorted.size() / 2);
+        log.info("{}: median {} ms to first request, runs {}", variant, median, millis);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jvmOptions", jvmOptions);
+        result.put("medianMillis", median);
+        result.put("millis", millis);
+        return result;
+    }
+
+    /**
+     * @return milliseconds from process start until the first 200 response
+     */
+    private long timeToFirstRequest(String name, List<String> jvmOptions) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-Dserver.port=" + port);
+        command.add("-jar");
+        command.add(jar.toString());
+
+        var request = HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + "/api/v1/statements/accounts/LT000000000000000000/balance"))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve(name + ".log").toFile())
+                .start();
+        try {
+            long deadline = started + START_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    fail("Application exited with " + process.exitValue() + ", see " + directory.resolve(name + ".log"));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+            return fail("No successful request within " + START_TIMEOUT + ", see " + directory.resolve(name + ".log"));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package lt.daiva.bankstatement.startup;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ValidatedSchemaMigrationStrategyTest {
+
+    @Test
+    void migrate_shouldSkipFlyway_whenSchemaIsAtExpectedVersion() {
+        Flyway flyway = spy(flyway("startup-current"));
+        var strategy = new ValidatedSchemaMigrationStrategy(latestMigrationVersion());
+
+        strategy.migrate(flyway);
+        strategy.migrate(flyway);
+
+        verify(flyway, times(1)).migrate();
+    }
+
+    @Test
+    void migrate_shouldRunFlyway_whenSchemaIsAtOtherVersion() {
+        Flyway flyway = spy(flyway("startup-outdated"));
+        flyway.migrate();
+        var strategy = new ValidatedSchemaMigrationStrategy("2026010714030000");
+
+        strategy.migrate(flyway);
+
+        verify(flyway, times(2)).migrate();
+    }
+
+    @Test
+    void migrate_shouldNotSkip_whenHistoryIsEmpty() {
+        Flyway flyway = spy(flyway("startup-empty"));
+        var strategy = new ValidatedSchemaMigrationStrategy(latestMigrationVersion());
+
+        strategy.migrate(flyway);
+
+        verify(flyway).migrate();
+    }
+
+    @Test
+    void configuredSchemaVersion_shouldMatchLatestMigration() {
+        var yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+
+        assertEquals(latestMigrationVersion(),
+                Objects.requireNonNull(yaml.getObject()).getProperty("bank-statement.startup.schema-version"),
+                "bank-statement.startup.schema-version must be raised with every new migration");
+    }
+
+    private static Flyway flyway(String database) {
+        return Flyway.configure()
+                .dataSource("jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "")
+                .load();
+    }
+
+    private static String latestMigrationVersion() {
+        try {
+            Resource[] migrations = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath:db/migration/V*.sql");
+            return Arrays.stream(migrations)
+                    .map(migration -> migration.getFilename().substring(1, migration.getFilename().indexOf("__")))
+                    .max(Comparator.comparingLong(Long::parseLong))
+                    .orElseThrow();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}